@@ -0,0 +1,259 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// Solver for "get from this start to exactly this target" puzzles (e.g. finish on a given hole
+// instead of the centre). It searches from both ends and stops where they meet:
+//
+// Backward: levels of positions that can reach the target, grown breadth-first from the target
+// with reverse jumps (one level per added peg) whenever the forward side has done as much work
+// as the backward side, up to a memory cap. Each level is a sorted, duplicate-free long[] built
+// like PositionEnumerator's (8 bytes per position, membership is a binary search), stored by
+// canonical form under the symmetries that fix the target.
+//
+// Forward: a depth-first search from the start like SolitaireSolver's, but it only has to reach
+// the peg count of the deepest backward level and then look the position up there. A position
+// at that level that isn't listed is dead right away, instead of after searching the last moves,
+// so with k backward levels the depth-first search is k moves shorter.
+//
+// No parent links are kept: the moves from the meeting position to the target are found again
+// by looking up its neighbours in the stored levels.
+//
+// Reverse jumps on a position are forward jumps on its complement (the empty holes), so the
+// backward side is pruned with a PagodaPruner aimed at the complement of the start, the same
+// way the forward side is pruned with one aimed at the target.
+public class BidirectionalSolver {
+    // Default cap for the backward levels (8M positions = 64 MB)
+    private static final int DEFAULT_BACKWARD_POSITIONS = 1 << 23;
+    // Number of positions buffered before each sort/merge step
+    private static final int CHUNK = 1 << 20;
+    // Forward nodes allowed before the first backward level is built
+    private static final int MIN_FORWARD_NODES = 1 << 12;
+    // Forward nodes allowed per backward position: building a backward position (reverse jumps,
+    // pruning, sorting) costs about as much as visiting this many forward ones
+    private static final int FORWARD_NODES_PER_POSITION = 4;
+
+    private final RuleSet rules;
+    private final BoardSymmetry symmetry;
+    private final int maxBackwardPositions;
+
+    // State of the current solve call
+    private BoardSymmetry targetSymmetry;
+    private PagodaPruner pruner;
+    private PositionEnumerator.LevelBuilder meetLevel;
+    private int meetPegs;
+    private final LongHashSet deadPositions = new LongHashSet();
+    private final int[] path = new int[BoardShape.MAX_HOLES];
+    private long nodes;
+    private long nodeLimit;
+    private boolean aborted;
+    private long backwardPositions;
+    private int backwardDepth;
+
+    public BidirectionalSolver(RuleSet rules) {
+        this(rules, DEFAULT_BACKWARD_POSITIONS);
+    }
+
+    // maxBackwardPositions = how many positions the backward levels may hold in total; once
+    // they reach it the forward search runs without a limit (the last level can overshoot it)
+    public BidirectionalSolver(RuleSet rules, int maxBackwardPositions) {
+        this.rules = rules;
+        this.symmetry = new BoardSymmetry(rules.getShape());
+        this.maxBackwardPositions = maxBackwardPositions;
+    }
+
+    // Finds a sequence of jumps that turns start into exactly target. Returns the jump ids in
+    // order, or null if no solution exists. (Use SolitaireSolver for "any single peg".)
+    public int[] solve(long start, long target) {
+        if (target == SolitaireSolver.ANY_SINGLE_PEG) {
+            throw new IllegalArgumentException("The target must be an exact position");
+        }
+        nodes = 0;
+        backwardPositions = 0;
+        backwardDepth = 0;
+        deadPositions.clear();
+        int depth = Long.bitCount(start) - Long.bitCount(target);
+        if (depth <= 0) return start == target ? new int[0] : null;
+
+        long emptyAtStart = rules.getShape().allHoles() & ~start;
+        if (emptyAtStart == 0) return null;
+        pruner = new PagodaPruner(rules, target);
+        if (!pruner.canReach(start)) return null;
+        targetSymmetry = symmetry.fixing(target);
+
+        // Alternate between the two sides like a breadth-first bidirectional search that always
+        // grows the cheaper one: the forward search gets a node budget in proportion to the
+        // backward levels, and when it runs out the backward side gets one more level. Positions it
+        // has proven dead stay dead, since the backward levels list everything that can reach
+        // the target from the start.
+        PagodaPruner fromStart = new PagodaPruner(rules, emptyAtStart);
+        List<PositionEnumerator.LevelBuilder> backward = new ArrayList<>();
+        PositionEnumerator.LevelBuilder first = new PositionEnumerator.LevelBuilder();
+        first.values = new long[]{targetSymmetry.canonical(target)};
+        first.count = 1;
+        backward.add(first);
+        backwardPositions = 1;
+        while (true) {
+            backwardDepth = backward.size() - 1;
+            meetLevel = backward.get(backwardDepth);
+            meetPegs = Long.bitCount(target) + backwardDepth;
+            boolean canGrow = backwardDepth < depth - 1 && backwardPositions < maxBackwardPositions;
+            long budget = Math.max(backwardPositions * FORWARD_NODES_PER_POSITION, MIN_FORWARD_NODES);
+            nodeLimit = canGrow ? nodes + budget : Long.MAX_VALUE;
+            aborted = false;
+
+            if (search(start, 0)) break;
+            if (!aborted) return null;
+
+            PositionEnumerator.LevelBuilder next = growBackward(meetLevel, fromStart);
+            if (next.count == 0) return null;
+            backward.add(next);
+            backwardPositions += next.count;
+        }
+
+        int forwardDepth = depth - backwardDepth;
+        // The forward moves are in path; walk from the meeting position down to the target
+        int[] moves = new int[depth];
+        System.arraycopy(path, 0, moves, 0, forwardDepth);
+        long pegs = start;
+        for (int i = 0; i < forwardDepth; i++) pegs = rules.apply(pegs, moves[i]);
+        for (int k = backwardDepth; k > 0; k--) {
+            int j = jumpInto(pegs, backward.get(k - 1));
+            moves[depth - k] = j;
+            pegs = rules.apply(pegs, j);
+        }
+        return moves;
+    }
+
+    // Returns how many positions the forward search of the last solve call visited (including
+    // the searches that were cut short to grow the backward side)
+    public long getNodeCount() {
+        return nodes;
+    }
+
+    // Returns how many positions the backward levels of the last solve call held
+    public long getBackwardPositions() {
+        return backwardPositions;
+    }
+
+    // Returns how many moves the last solve call covered from the target side
+    public int getBackwardDepth() {
+        return backwardDepth;
+    }
+
+    // Builds the next backward level: every position one reverse jump away from the level that
+    // the start can still reach (the empty holes of one of its copies must be able to turn into
+    // the start's)
+    private PositionEnumerator.LevelBuilder growBackward(PositionEnumerator.LevelBuilder level,
+                                                         PagodaPruner fromStart) {
+        long holes = rules.getShape().allHoles();
+        int jumps = rules.jumpCount();
+        long[] chunk = new long[CHUNK];
+        long[] scratch = new long[CHUNK];
+
+        PositionEnumerator.LevelBuilder next = new PositionEnumerator.LevelBuilder();
+        int filled = 0;
+        for (int i = 0; i < level.count; i++) {
+            long pegs = level.values[i];
+            // Make sure a whole position's parents always fit in the chunk
+            if (filled + jumps > CHUNK) {
+                next.addChunk(chunk, filled, scratch);
+                filled = 0;
+            }
+            for (int j = 0; j < jumps; j++) {
+                if (!rules.canUnjump(pegs, j)) continue;
+                long parent = rules.apply(pegs, j);
+                if (startCanReachSomeCopy(holes & ~parent, fromStart)) {
+                    chunk[filled++] = targetSymmetry.canonical(parent);
+                }
+            }
+        }
+        next.addChunk(chunk, filled, scratch);
+        next.finish();
+        return next;
+    }
+
+    // Checks the pagoda test on every copy of emptyHoles under the symmetries that fix the target.
+    // A stored level position is just one of the copies of the real one, and the start usually
+    // isn't symmetric, so testing only that copy would drop parents the start can reach.
+    private boolean startCanReachSomeCopy(long emptyHoles, PagodaPruner fromStart) {
+        for (int s = 0; s < targetSymmetry.size(); s++) {
+            if (fromStart.canReach(targetSymmetry.transform(emptyHoles, s))) return true;
+        }
+        return false;
+    }
+
+    // Depth-first search from the start down to the meeting level; leaves the moves in path
+    private boolean search(long pegs, int depth) {
+        if (++nodes > nodeLimit) {
+            aborted = true;
+            return false;
+        }
+
+        long key = targetSymmetry.canonical(pegs);
+        if (Long.bitCount(pegs) == meetPegs) {
+            return LongSorts.contains(meetLevel.values, meetLevel.count, key);
+        }
+        if (!pruner.canReach(pegs)) return false;
+        if (deadPositions.contains(key)) return false;
+
+        int jumps = rules.jumpCount();
+        for (int j = 0; j < jumps; j++) {
+            if (!rules.canJump(pegs, j)) continue;
+
+            path[depth] = j;
+            if (search(rules.apply(pegs, j), depth + 1)) return true;
+        }
+
+        // A search cut short by the node limit hasn't proven anything
+        if (!aborted) deadPositions.add(key);
+        return false;
+    }
+
+    // Finds the jump from pegs to a position of the given backward level. pegs is listed (by
+    // canonical form) in the level above, which was built from that level, so one exists.
+    private int jumpInto(long pegs, PositionEnumerator.LevelBuilder level) {
+        for (int j = 0; j < rules.jumpCount(); j++) {
+            if (!rules.canJump(pegs, j)) continue;
+            long key = targetSymmetry.canonical(rules.apply(pegs, j));
+            if (LongSorts.contains(level.values, level.count, key)) return j;
+        }
+        throw new IllegalStateException("Backward levels don't connect at " + Long.toHexString(pegs));
+    }
+
+    // Command-line entry point: solves an English board from one empty hole to one peg in a hole
+    // and compares with SolitaireSolver.
+    // Usage: java BidirectionalSolver [emptyRow emptyCol [targetRow targetCol]] (default: centre)
+    public static void main(String[] args) {
+        BoardShape shape = BoardShape.english();
+        int empty = args.length >= 2
+                ? shape.holeIndex(Integer.parseInt(args[0]), Integer.parseInt(args[1])) : shape.centerHole();
+        int finish = args.length >= 4
+                ? shape.holeIndex(Integer.parseInt(args[2]), Integer.parseInt(args[3])) : empty;
+        if (empty < 0 || finish < 0) {
+            System.out.println("Not a hole on the English board");
+            return;
+        }
+        RuleSet rules = RuleSet.orthogonal(shape);
+        long start = shape.startingPosition(empty);
+
+        BidirectionalSolver solver = new BidirectionalSolver(rules);
+        long begin = System.nanoTime();
+        int[] jumps = solver.solve(start, 1L << finish);
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        if (jumps == null) {
+            System.out.println("No solution");
+        } else {
+            for (int[] m : SolitaireSolver.toMoves(rules, jumps)) {
+                System.out.printf("(%d,%d) -> (%d,%d)%n", m[0], m[1], m[2], m[3]);
+            }
+        }
+        System.out.printf("bidirectional: %,d backward positions (%d moves), %,d forward nodes, %.3f s%n",
+                solver.getBackwardPositions(), solver.getBackwardDepth(), solver.getNodeCount(), seconds);
+
+        SolitaireSolver plain = new SolitaireSolver(rules);
+        begin = System.nanoTime();
+        plain.solve(start, 1L << finish);
+        System.out.printf("depth-first:   %,d nodes, %.3f s%n",
+                plain.getNodeCount(), (System.nanoTime() - begin) / 1e9);
+    }
+}
@@ -0,0 +1,104 @@
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for BidirectionalSolver.
+ * Solutions must replay from the start to exactly the target, and the solver must
+ * agree with SolitaireSolver on which targets can be reached.
+ */
+public class BidirectionalSolverTest {
+
+    /**
+     * Test every single-peg target of a 4x4 square (with diagonal jumps) from two
+     * starts, with the default backward budget and with a tiny one.
+     */
+    @Test
+    void shouldAgreeWithDepthFirstSolverOnSmallBoard() {
+        boolean[][] square = new boolean[4][4];
+        for (boolean[] row : square) Arrays.fill(row, true);
+        BoardShape shape = new BoardShape(square);
+        RuleSet rules = RuleSet.withDiagonals(shape);
+
+        SolitaireSolver plain = new SolitaireSolver(rules);
+        plain.setPruning(false);
+        BidirectionalSolver[] solvers = {new BidirectionalSolver(rules), new BidirectionalSolver(rules, 16)};
+        int solvable = 0;
+        for (long start : new long[]{shape.startingPosition(), shape.startingPosition(shape.holeIndex(1, 2))}) {
+            for (int hole = 0; hole < shape.getHoleCount(); hole++) {
+                long target = 1L << hole;
+                boolean expected = plain.solve(start, target) != null;
+                for (BidirectionalSolver solver : solvers) {
+                    int[] jumps = solver.solve(start, target);
+                    assertEquals(expected, jumps != null);
+                    if (jumps != null) assertEquals(target, replay(rules, start, jumps));
+                }
+                if (expected) solvable++;
+            }
+        }
+        assertTrue(solvable > 0);
+    }
+
+    /**
+     * Test an English game that ends on the bottom edge instead of the centre.
+     */
+    @Test
+    void englishStartShouldFinishOnAnotherHole() {
+        BoardShape shape = BoardShape.english();
+        RuleSet rules = RuleSet.orthogonal(shape);
+        long start = shape.startingPosition();
+        long target = 1L << shape.holeIndex(6, 3);
+
+        BidirectionalSolver solver = new BidirectionalSolver(rules);
+        int[] jumps = solver.solve(start, target);
+
+        assertNotNull(jumps);
+        assertEquals(31, jumps.length);
+        assertEquals(target, replay(rules, start, jumps));
+        assertTrue(solver.getBackwardDepth() > 0);
+    }
+
+    /**
+     * Test asymmetric English starts with the centre as target. The backward levels are stored
+     * by canonical form under the target's symmetries, so the start has to be tested against
+     * every copy of a parent, not just the stored one.
+     */
+    @Test
+    void asymmetricStartsShouldReachSymmetricTarget() {
+        BoardShape shape = BoardShape.english();
+        RuleSet rules = RuleSet.orthogonal(shape);
+        long target = 1L << shape.centerHole();
+
+        BidirectionalSolver solver = new BidirectionalSolver(rules);
+        for (long start : new long[]{0x1d0639dc0L, 0xf0c0be54L, 0x1373cac40L}) {
+            int[] jumps = solver.solve(start, target);
+            assertNotNull(jumps);
+            assertEquals(target, replay(rules, start, jumps));
+        }
+    }
+
+    /**
+     * Test the edge cases: no moves needed, more pegs in the target than in the start,
+     * and "any single peg", which is not an exact target.
+     */
+    @Test
+    void edgeCasesShouldBeHandled() {
+        BoardShape shape = BoardShape.english();
+        BidirectionalSolver solver = new BidirectionalSolver(RuleSet.orthogonal(shape));
+        long start = shape.startingPosition();
+
+        assertArrayEquals(new int[0], solver.solve(start, start));
+        assertNull(solver.solve(1L << shape.centerHole(), start));
+        assertThrows(IllegalArgumentException.class, () -> solver.solve(start, SolitaireSolver.ANY_SINGLE_PEG));
+    }
+
+    // Plays the jumps from start (checking each one is legal) and returns the final position
+    private static long replay(RuleSet rules, long start, int[] jumps) {
+        long pegs = start;
+        for (int j : jumps) {
+            assertTrue(rules.canJump(pegs, j));
+            pegs = rules.apply(pegs, j);
+        }
+        return pegs;
+    }
+}
@@ -0,0 +1,194 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Describes the shape of a peg solitaire board: which cells of the size x size grid are real holes.
+// Every valid hole gets a dense index (0..holeCount-1) so a whole position fits in a single long,
+// where bit i is set when hole i has a peg.
+public final class BoardShape {
+    // Positions are packed into one long, so a shape can have at most 64 holes
+    public static final int MAX_HOLES = 64;
+
+    // Fixed seed for the Zobrist keys, so hashes are the same from run to run (and can be saved)
+    private static final long ZOBRIST_SEED = 0x9E3779B97F4A7C15L;
+
+    // The English cross never changes, so every game can share the same instance
+    private static final BoardShape ENGLISH = new BoardShape(englishMask());
+
+    private final int size;
+    // validHole[r][c] = true means that (r,c) is an actual spot on the board
+    private final boolean[][] validHole;
+    // holeIndex[r][c] = dense index of the hole, or -1 if (r,c) is not part of the board
+    private final int[][] holeIndex;
+    // Reverse lookup: row and column of each hole index
+    private final int[] holeRow;
+    private final int[] holeCol;
+    private final int holeCount;
+    // Bit mask with one bit set for every hole on the board
+    private final long allHoles;
+    // Random 64-bit key per hole; a position's Zobrist hash is the XOR of the keys of its pegs
+    private final long[] zobristKeys;
+
+    // Builds a shape from a square mask (mask[r][c] = true means the cell is a hole)
+    public BoardShape(boolean[][] mask) {
+        size = mask.length;
+        validHole = new boolean[size][size];
+        holeIndex = new int[size][size];
+
+        int count = 0;
+        for (int r = 0; r < size; r++) {
+            if (mask[r].length != size) {
+                throw new IllegalArgumentException("Board mask must be square");
+            }
+            for (int c = 0; c < size; c++) {
+                validHole[r][c] = mask[r][c];
+                holeIndex[r][c] = mask[r][c] ? count++ : -1;
+            }
+        }
+        if (count > MAX_HOLES) {
+            throw new IllegalArgumentException("Board has " + count + " holes, at most " + MAX_HOLES + " are supported");
+        }
+
+        holeCount = count;
+        holeRow = new int[count];
+        holeCol = new int[count];
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                int i = holeIndex[r][c];
+                if (i >= 0) {
+                    holeRow[i] = r;
+                    holeCol[i] = c;
+                }
+            }
+        }
+        allHoles = count == 64 ? -1L : (1L << count) - 1;
+
+        zobristKeys = new long[count];
+        SplittableRandom random = new SplittableRandom(ZOBRIST_SEED);
+        for (int i = 0; i < count; i++) {
+            zobristKeys[i] = random.nextLong();
+        }
+    }
+
+    // The standard English board: a 7x7 cross with the 2x2 corners cut away
+    public static BoardShape english() {
+        return ENGLISH;
+    }
+
+    // Diamond shape inside a size x size grid: every cell within Manhattan distance size/2 of the
+    // center (the GUI uses 9x9, which gives 41 holes)
+    public static BoardShape diamond(int size) {
+        int mid = size / 2;
+        boolean[][] mask = new boolean[size][size];
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                mask[r][c] = Math.abs(r - mid) + Math.abs(c - mid) <= mid;
+            }
+        }
+        return new BoardShape(mask);
+    }
+
+    // English board shape: a cross where rows/cols 2-4 are always valid, but corners are invalid
+    private static boolean[][] englishMask() {
+        boolean[][] mask = new boolean[7][7];
+        for (int r = 0; r < 7; r++) {
+            for (int c = 0; c < 7; c++) {
+                mask[r][c] = !((r < 2 || r > 4) && (c < 2 || c > 4));
+            }
+        }
+        return mask;
+    }
+
+    // Returns the width/height of the grid the board sits in
+    public int getSize() {
+        return size;
+    }
+
+    // Returns how many real holes the board has
+    public int getHoleCount() {
+        return holeCount;
+    }
+
+    // Checks if (r,c) is inside the grid and part of the board
+    public boolean isValidHole(int r, int c) {
+        return inBounds(r, c) && validHole[r][c];
+    }
+
+    // Returns the dense index of the hole at (r,c), or -1 if there is no hole there
+    public int holeIndex(int r, int c) {
+        return inBounds(r, c) ? holeIndex[r][c] : -1;
+    }
+
+    // Returns the row of the given hole index
+    public int holeRow(int hole) {
+        return holeRow[hole];
+    }
+
+    // Returns the column of the given hole index
+    public int holeCol(int hole) {
+        return holeCol[hole];
+    }
+
+    // Returns a mask with every hole of the board set
+    public long allHoles() {
+        return allHoles;
+    }
+
+    // Returns row r of the board mask as bits (bit c set when (r,c) is a hole)
+    public long rowMask(int r) {
+        long bits = 0;
+        for (int c = 0; c < size; c++) {
+            if (validHole[r][c]) bits |= 1L << c;
+        }
+        return bits;
+    }
+
+    // Checks if another shape has exactly the same holes (so hole indexes and jump ids match)
+    public boolean sameLayout(BoardShape other) {
+        if (other == this) return true;
+        if (other.size != size) return false;
+        for (int r = 0; r < size; r++) {
+            if (!Arrays.equals(validHole[r], other.validHole[r])) return false;
+        }
+        return true;
+    }
+
+    // Returns the Zobrist key of a hole (XOR it in/out when a peg appears/disappears there)
+    public long zobristKey(int hole) {
+        return zobristKeys[hole];
+    }
+
+    // Computes the Zobrist hash of a position from scratch. Code that plays moves should
+    // update the hash incrementally instead (see RuleSet.zobristDelta).
+    public long zobristHash(long pegs) {
+        long hash = 0;
+        while (pegs != 0) {
+            hash ^= zobristKeys[Long.numberOfTrailingZeros(pegs)];
+            pegs &= pegs - 1;
+        }
+        return hash;
+    }
+
+    // Returns the index of the center hole, or -1 if the center cell is not a hole
+    public int centerHole() {
+        return holeIndex(size / 2, size / 2);
+    }
+
+    // Starting layout for peg solitaire: every hole has a peg except the center
+    public long startingPosition() {
+        int center = centerHole();
+        if (center < 0) {
+            throw new IllegalStateException("Board has no center hole");
+        }
+        return startingPosition(center);
+    }
+
+    // Every hole has a peg except the given one
+    public long startingPosition(int emptyHole) {
+        return allHoles & ~(1L << emptyHole);
+    }
+
+    // Helper method: checks if the given row and column are within the grid
+    private boolean inBounds(int r, int c) {
+        return r >= 0 && c >= 0 && r < size && c < size;
+    }
+}
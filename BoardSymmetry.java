@@ -0,0 +1,135 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// The rotations and reflections that map a board shape onto itself (up to 8 for a square grid).
+// canonical() maps a position to the smallest of its symmetric copies, so positions that are
+// just rotated/mirrored versions of each other share one key in caches and solver tables.
+//
+// Each symmetry is a permutation of hole indexes. To make applying it cheap we precompute,
+// for every byte of the packed position, the image of all 256 byte values; transforming a
+// position is then one table lookup per 8 holes instead of one step per hole.
+public final class BoardSymmetry {
+    private final BoardShape shape;
+    // perms[s][hole] = where symmetry s sends the hole (perms[0] is always the identity)
+    private final int[][] perms;
+    // byteTables[s][chunk][value] = image of the holes 8*chunk..8*chunk+7 set in value
+    private final long[][][] byteTables;
+    private final int chunks;
+
+    // Builds all grid symmetries (rotations + reflections) that keep the shape unchanged
+    public BoardSymmetry(BoardShape shape) {
+        this(shape, shapeSymmetries(shape));
+    }
+
+    private BoardSymmetry(BoardShape shape, List<int[]> perms) {
+        this.shape = shape;
+        this.perms = perms.toArray(new int[0][]);
+        this.chunks = (shape.getHoleCount() + 7) / 8;
+
+        byteTables = new long[this.perms.length][chunks][256];
+        for (int s = 0; s < this.perms.length; s++) {
+            int[] perm = this.perms[s];
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                long[] table = byteTables[s][chunk];
+                for (int value = 1; value < 256; value++) {
+                    // Build each entry from the entry without its lowest bit
+                    int low = Integer.numberOfTrailingZeros(value);
+                    int hole = chunk * 8 + low;
+                    long image = hole < perm.length ? 1L << perm[hole] : 0;
+                    table[value] = table[value & (value - 1)] | image;
+                }
+            }
+        }
+    }
+
+    // Returns the subgroup of symmetries that leave the given position unchanged.
+    // Use this when a search aims at a fixed target that isn't symmetric itself.
+    public BoardSymmetry fixing(long position) {
+        List<int[]> kept = new ArrayList<>();
+        for (int s = 0; s < perms.length; s++) {
+            if (transform(position, s) == position) kept.add(perms[s]);
+        }
+        return new BoardSymmetry(shape, kept);
+    }
+
+    // Returns how many symmetries there are (including the identity)
+    public int size() {
+        return perms.length;
+    }
+
+    // Returns the shape these symmetries belong to
+    public BoardShape getShape() {
+        return shape;
+    }
+
+    // Applies symmetry s to a packed position
+    public long transform(long pegs, int s) {
+        long[][] tables = byteTables[s];
+        long result = 0;
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            result |= tables[chunk][(int) (pegs >>> (chunk * 8)) & 0xFF];
+        }
+        return result;
+    }
+
+    // Writes transform(pegs, s) for every symmetry s into out
+    public void transformAll(long pegs, long[] out) {
+        for (int s = 0; s < perms.length; s++) {
+            out[s] = transform(pegs, s);
+        }
+    }
+
+    // Returns jumpImages[j][s] = transform(flipMask(j), s) for every jump of the rule set.
+    // Symmetries just move bits around, so transform(p ^ flip) == transform(p) ^ transform(flip):
+    // with these images a child's symmetric copies cost one XOR each instead of a full transform.
+    public long[][] jumpImages(RuleSet rules) {
+        long[][] images = new long[rules.jumpCount()][perms.length];
+        for (int j = 0; j < images.length; j++) {
+            transformAll(rules.flipMask(j), images[j]);
+        }
+        return images;
+    }
+
+    // Returns the smallest position among all symmetric copies of pegs
+    public long canonical(long pegs) {
+        long best = pegs;
+        // Symmetry 0 is the identity, so it can be skipped
+        for (int s = 1; s < perms.length; s++) {
+            long t = transform(pegs, s);
+            if (t < best) best = t;
+        }
+        return best;
+    }
+
+    // Tries the 8 transforms of the square grid and keeps the ones that map holes onto holes
+    private static List<int[]> shapeSymmetries(BoardShape shape) {
+        int n = shape.getSize() - 1;
+        List<int[]> result = new ArrayList<>();
+
+        for (int t = 0; t < 8; t++) {
+            int[] perm = new int[shape.getHoleCount()];
+            boolean fits = true;
+
+            for (int hole = 0; hole < perm.length && fits; hole++) {
+                int r = shape.holeRow(hole);
+                int c = shape.holeCol(hole);
+                int tr, tc;
+                switch (t) {
+                    case 0: tr = r;     tc = c;     break; // identity
+                    case 1: tr = c;     tc = n - r; break; // rotate 90
+                    case 2: tr = n - r; tc = n - c; break; // rotate 180
+                    case 3: tr = n - c; tc = r;     break; // rotate 270
+                    case 4: tr = r;     tc = n - c; break; // mirror left/right
+                    case 5: tr = n - r; tc = c;     break; // mirror top/bottom
+                    case 6: tr = c;     tc = r;     break; // mirror main diagonal
+                    default: tr = n - c; tc = n - r; break; // mirror anti-diagonal
+                }
+                perm[hole] = shape.holeIndex(tr, tc);
+                fits = perm[hole] >= 0;
+            }
+
+            if (fits) result.add(perm);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,75 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for BoardSymmetry.
+ * Checks the symmetry groups of the English and Diamond boards and that canonical
+ * forms are shared by rotated/mirrored positions.
+ */
+public class BoardSymmetryTest {
+
+    /**
+     * Test that both the English cross and the 9x9 diamond have all 8 symmetries.
+     */
+    @Test
+    void englishAndDiamondShouldHave8Symmetries() {
+        assertEquals(8, new BoardSymmetry(BoardShape.english()).size());
+        assertEquals(8, new BoardSymmetry(BoardShape.diamond(9)).size());
+        assertEquals(41, BoardShape.diamond(9).getHoleCount());
+    }
+
+    /**
+     * Test that the four opening moves of the English board all have the same canonical form,
+     * since each one is a rotation of the others.
+     */
+    @Test
+    void openingMovesShouldShareCanonicalForm() {
+        BoardShape shape = BoardShape.english();
+        RuleSet rules = RuleSet.orthogonal(shape);
+        BoardSymmetry symmetry = new BoardSymmetry(shape);
+        long start = shape.startingPosition();
+
+        long expected = 0;
+        int openings = 0;
+        for (int j = 0; j < rules.jumpCount(); j++) {
+            if (!rules.canJump(start, j)) continue;
+
+            long key = symmetry.canonical(rules.apply(start, j));
+            if (openings == 0) expected = key;
+            assertEquals(expected, key);
+            openings++;
+        }
+        assertEquals(4, openings);
+    }
+
+    /**
+     * Test that every transform keeps the peg count and that canonical is the minimum.
+     */
+    @Test
+    void canonicalShouldBeSmallestTransform() {
+        BoardShape shape = BoardShape.diamond(9);
+        BoardSymmetry symmetry = new BoardSymmetry(shape);
+        long pegs = 0x1234_5678_9AL & shape.allHoles();
+
+        long canonical = symmetry.canonical(pegs);
+        for (int s = 0; s < symmetry.size(); s++) {
+            long t = symmetry.transform(pegs, s);
+            assertEquals(Long.bitCount(pegs), Long.bitCount(t));
+            assertTrue(canonical <= t);
+            assertEquals(canonical, symmetry.canonical(t));
+        }
+    }
+
+    /**
+     * Test that only symmetries keeping an off-center target in place are kept.
+     */
+    @Test
+    void fixingShouldKeepOnlyTargetPreservingSymmetries() {
+        BoardShape shape = BoardShape.english();
+        BoardSymmetry symmetry = new BoardSymmetry(shape);
+
+        assertEquals(8, symmetry.fixing(1L << shape.centerHole()).size());
+        // (3,1) is only kept by the identity and the top/bottom mirror
+        assertEquals(2, symmetry.fixing(1L << shape.holeIndex(3, 1)).size());
+    }
+}
@@ -0,0 +1,133 @@
+// CanvasBoardView.java
+// Draws the board on one Canvas instead of a grid of buttons.
+// With buttons, every refresh sets text + style on all 49 (or 81) cells, and JavaFX then
+// re-applies CSS and lays them out again. Here each cell is just a few shapes on the canvas,
+// and render() only redraws the cells that changed since the last frame: the holes whose peg
+// state differs (oldPegs ^ newPegs, i.e. the three holes of a move) plus the old and new
+// selection. A click is turned back into a hole by hit-testing the cell under the mouse.
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+import java.util.function.IntConsumer;
+
+public class CanvasBoardView {
+
+    // Same footprint as the button grid: 48px cells, 6px gaps, 12px padding
+    private static final double CELL = 48;
+    private static final double GAP = 6;
+    private static final double PADDING = 12;
+    private static final double PITCH = CELL + GAP;
+    // Peg and hole circles inside a cell
+    private static final double PEG_INSET = 10;
+    private static final double HOLE_INSET = 16;
+
+    private static final Color BACKGROUND = Color.WHITE;
+    private static final Color CELL_FILL = Color.LIGHTGRAY;
+    private static final Color PEG_FILL = Color.BLACK;
+    private static final Color HOLE_STROKE = Color.DARKGRAY;
+    private static final Color SELECTION = Color.DODGERBLUE;
+
+    private final Canvas canvas = new Canvas();
+    private final GraphicsContext g = canvas.getGraphicsContext2D();
+
+    private BoardShape shape;
+    // What is on the canvas right now (drawnSelection = hole index, or -1 for none)
+    private long drawnPegs;
+    private int drawnSelection = -1;
+    private boolean needsFullRepaint = true;
+
+    public CanvasBoardView() {
+    }
+
+    // The node to put in the scene
+    public Canvas getCanvas() {
+        return canvas;
+    }
+
+    // Calls the handler with the hole index whenever a hole is clicked
+    // (clicks on the gaps or outside the board are ignored)
+    public void setOnHoleClicked(IntConsumer handler) {
+        canvas.setOnMouseClicked(e -> {
+            int hole = holeAt(e.getX(), e.getY());
+            if (hole >= 0) handler.accept(hole);
+        });
+    }
+
+    // Switches to another board shape; the next render draws everything
+    public void setShape(BoardShape shape) {
+        this.shape = shape;
+        double side = 2 * PADDING + shape.getSize() * PITCH - GAP;
+        canvas.setWidth(side);
+        canvas.setHeight(side);
+        needsFullRepaint = true;
+    }
+
+    // Brings the canvas up to date with the given position and selected hole (-1 = none),
+    // drawing only the cells that changed
+    public void render(long pegs, int selectedHole) {
+        if (shape == null) return;
+
+        if (needsFullRepaint) {
+            g.setFill(BACKGROUND);
+            g.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+            for (int hole = 0; hole < shape.getHoleCount(); hole++) {
+                drawCell(hole, pegs, selectedHole);
+            }
+            needsFullRepaint = false;
+        } else {
+            // Cells whose peg changed, plus the one losing and the one gaining the selection
+            long dirty = drawnPegs ^ pegs;
+            if (drawnSelection != selectedHole) {
+                if (drawnSelection >= 0) dirty |= 1L << drawnSelection;
+                if (selectedHole >= 0) dirty |= 1L << selectedHole;
+            }
+            for (long rest = dirty; rest != 0; rest &= rest - 1) {
+                drawCell(Long.numberOfTrailingZeros(rest), pegs, selectedHole);
+            }
+        }
+        drawnPegs = pegs;
+        drawnSelection = selectedHole;
+    }
+
+    // Returns the hole under the point (canvas coordinates), or -1 if there is none
+    public int holeAt(double x, double y) {
+        if (shape == null) return -1;
+        double fx = x - PADDING;
+        double fy = y - PADDING;
+        if (fx < 0 || fy < 0) return -1;
+
+        int c = (int) (fx / PITCH);
+        int r = (int) (fy / PITCH);
+        // Inside the cell square, not in the gap after it
+        if (fx - c * PITCH >= CELL || fy - r * PITCH >= CELL) return -1;
+        if (r >= shape.getSize() || c >= shape.getSize() || !shape.isValidHole(r, c)) return -1;
+        return shape.holeIndex(r, c);
+    }
+
+    // Draws one cell from scratch: background square, then a peg or an empty hole,
+    // then the selection frame
+    private void drawCell(int hole, long pegs, int selectedHole) {
+        double x = PADDING + shape.holeCol(hole) * PITCH;
+        double y = PADDING + shape.holeRow(hole) * PITCH;
+
+        g.setFill(CELL_FILL);
+        g.fillRect(x, y, CELL, CELL);
+
+        if ((pegs & (1L << hole)) != 0) {
+            g.setFill(PEG_FILL);
+            g.fillOval(x + PEG_INSET, y + PEG_INSET, CELL - 2 * PEG_INSET, CELL - 2 * PEG_INSET);
+        } else {
+            g.setStroke(HOLE_STROKE);
+            g.setLineWidth(2);
+            g.strokeOval(x + HOLE_INSET, y + HOLE_INSET, CELL - 2 * HOLE_INSET, CELL - 2 * HOLE_INSET);
+        }
+
+        if (hole == selectedHole) {
+            g.setStroke(SELECTION);
+            g.setLineWidth(3);
+            g.strokeRect(x + 1.5, y + 1.5, CELL - 3, CELL - 3);
+        }
+    }
+}
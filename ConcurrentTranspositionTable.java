@@ -0,0 +1,165 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Fixed-size table of search results shared by many threads without any locks.
+// Entries are grouped in buckets of 4 (64 bytes, one cache line) chosen by the key's hash.
+// Each entry is two longs: the data word (value, depth, age) and the check word, the key's
+// 64-bit hash (LongHashSet.mix64) XOR-ed with the data. A writer installs the data word with a
+// compare-and-set and then the check word, so a reader that sees half an update finds the check
+// doesn't match and simply treats it as a miss.
+// The check uses the mixed key, not the key itself: a torn entry can leave the check word as
+// hash1 ^ data1 ^ data2, and with raw positions that would be another real position (one that
+// differs only in a few low bits). Mixed, it's an arbitrary 64-bit value, so lookups can fail
+// spuriously or lose entries under races but (short of a 64-bit coincidence) never return the
+// value of another position. That is fine for a cache: a miss only means searching again.
+//
+// When a bucket is full a store replaces one of its entries, chosen by the replacement policy.
+public final class ConcurrentTranspositionTable {
+    // Which entry of a full bucket a new result evicts
+    public enum Replacement {
+        // The one with the smallest depth (least work to recompute); older entries break ties
+        DEPTH_PREFERRED,
+        // Entries left over from earlier searches first (see newSearch), then the smallest depth
+        AGE_PREFERRED
+    }
+
+    // Returned by probe when the key isn't in the table
+    public static final int MISS = -1;
+
+    private static final int BUCKET_ENTRIES = 4;
+    private static final int ENTRY_BYTES = 16;
+
+    // Data word layout: bits 0-7 depth, bits 8-15 age, bit 16 = entry in use, bits 32-63 value
+    private static final long USED = 1L << 16;
+
+    private final AtomicLongArray table;
+    private final int bucketMask;
+    private final Replacement replacement;
+    private volatile int age;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+
+    // memoryBytes = budget for the table; the entry count is rounded down to a power of two
+    // (at least one bucket)
+    public ConcurrentTranspositionTable(long memoryBytes, Replacement replacement) {
+        long buckets = Math.max(1, memoryBytes / (BUCKET_ENTRIES * ENTRY_BYTES));
+        buckets = Long.highestOneBit(Math.min(buckets, (Integer.MAX_VALUE / 2) / BUCKET_ENTRIES));
+        this.table = new AtomicLongArray((int) buckets * BUCKET_ENTRIES * 2);
+        this.bucketMask = (int) buckets - 1;
+        this.replacement = replacement;
+    }
+
+    // Returns how many entries the table holds at most
+    public int capacity() {
+        return (bucketMask + 1) * BUCKET_ENTRIES;
+    }
+
+    // Returns the value stored for key, or MISS
+    public int probe(long key) {
+        long check = LongHashSet.mix64(key);
+        int base = bucketStart(check);
+        for (int e = 0; e < BUCKET_ENTRIES; e++) {
+            int i = base + 2 * e;
+            long data = table.get(i + 1);
+            if ((data & USED) != 0 && (table.get(i) ^ data) == check) {
+                hits.increment();
+                return (int) (data >>> 32);
+            }
+        }
+        misses.increment();
+        return MISS;
+    }
+
+    // Stores a non-negative value for key. depth = how much work the result stands for
+    // (e.g. pegs left below the position), capped at 255; deeper entries are kept longer.
+    public void store(long key, int value, int depth) {
+        if (value < 0) throw new IllegalArgumentException("Values must be non-negative");
+        long data = ((long) value << 32) | USED | ((long) (age & 0xFF) << 8) | Math.min(depth, 255);
+        long check = LongHashSet.mix64(key);
+        int base = bucketStart(check);
+        stores.increment();
+
+        // Overwrite the key's own entry if it has one, else a free entry, else the least valuable
+        int victim = -1;
+        long victimData = 0;
+        int victimScore = Integer.MAX_VALUE;
+        for (int e = 0; e < BUCKET_ENTRIES; e++) {
+            int i = base + 2 * e;
+            long old = table.get(i + 1);
+            boolean used = (old & USED) != 0;
+            if (used && (table.get(i) ^ old) == check) {
+                victim = i;
+                victimData = old;
+                victimScore = -1;
+                break;
+            }
+            int score = used ? score(old) : -1;
+            if (score < victimScore) {
+                victim = i;
+                victimData = old;
+                victimScore = score;
+            }
+        }
+        if (victimScore >= 0) collisions.increment();
+
+        // Only one writer can win the data word; losers just drop their result
+        if (table.compareAndSet(victim + 1, victimData, data)) {
+            table.set(victim, check ^ data);
+        }
+    }
+
+    // Starts a new search: entries stored from now on are "younger" than the ones before
+    public void newSearch() {
+        age = (age + 1) & 0xFF;
+    }
+
+    // Empties the table and resets the counters (not safe while other threads are using it)
+    public void clear() {
+        for (int i = 0; i < table.length(); i++) table.set(i, 0);
+        resetCounters();
+    }
+
+    // Sets the hit/miss/store/collision counters back to zero
+    public void resetCounters() {
+        hits.reset();
+        misses.reset();
+        stores.reset();
+        collisions.reset();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long stores() {
+        return stores.sum();
+    }
+
+    // Stores that had to evict another position's entry
+    public long collisions() {
+        return collisions.sum();
+    }
+
+    // How valuable an entry is to keep: the lowest score in a full bucket is replaced
+    private int score(long data) {
+        int depth = (int) (data & 0xFF);
+        int entryAge = (int) ((data >>> 8) & 0xFF);
+        boolean current = entryAge == (age & 0xFF);
+        if (replacement == Replacement.AGE_PREFERRED) {
+            return (current ? 256 : 0) + depth;
+        }
+        return depth * 2 + (current ? 1 : 0);
+    }
+
+    // Index of the first long of the bucket for a key with this hash (mix64)
+    private int bucketStart(long check) {
+        return ((int) check & bucketMask) * BUCKET_ENTRIES * 2;
+    }
+}
@@ -0,0 +1,78 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for ConcurrentTranspositionTable.
+ * Checks the replacement policies on a single bucket and that concurrent writers never make
+ * a lookup return another key's value.
+ */
+public class ConcurrentTranspositionTableTest {
+
+    /**
+     * Test that a full bucket evicts the shallowest entry with the depth-preferring policy,
+     * and entries from an older search first with the age-preferring one.
+     */
+    @Test
+    void fullBucketShouldEvictByPolicy() {
+        // 64 bytes = one bucket of 4 entries, so every key lands in the same bucket
+        ConcurrentTranspositionTable depth = new ConcurrentTranspositionTable(64,
+                ConcurrentTranspositionTable.Replacement.DEPTH_PREFERRED);
+        assertEquals(4, depth.capacity());
+        for (int k = 1; k <= 4; k++) depth.store(k, k * 100, k * 10);
+        depth.store(5, 500, 25);
+        assertEquals(ConcurrentTranspositionTable.MISS, depth.probe(1));
+        assertEquals(200, depth.probe(2));
+        assertEquals(500, depth.probe(5));
+        assertEquals(1, depth.collisions());
+
+        ConcurrentTranspositionTable age = new ConcurrentTranspositionTable(64,
+                ConcurrentTranspositionTable.Replacement.AGE_PREFERRED);
+        age.store(1, 100, 50);
+        age.newSearch();
+        for (int k = 2; k <= 4; k++) age.store(k, k * 100, 10);
+        age.store(5, 500, 10);
+        assertEquals(ConcurrentTranspositionTable.MISS, age.probe(1));
+        assertEquals(400, age.probe(4));
+    }
+
+    /**
+     * Test that with four threads storing and probing overlapping keys in a small table,
+     * every hit returns the value that belongs to the key.
+     */
+    @Test
+    void concurrentUseShouldNeverMixUpKeys() throws InterruptedException {
+        ConcurrentTranspositionTable table = new ConcurrentTranspositionTable(1 << 12,
+                ConcurrentTranspositionTable.Replacement.DEPTH_PREFERRED);
+        AtomicInteger wrong = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            long seed = t;
+            threads[t] = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                for (int i = 0; i < 200_000; i++) {
+                    long key = random.nextLong(5_000) * 0x9E3779B97F4A7C15L;
+                    int value = valueOf(key);
+                    if (random.nextBoolean()) {
+                        table.store(key, value, random.nextInt(40));
+                    } else {
+                        int found = table.probe(key);
+                        if (found != ConcurrentTranspositionTable.MISS && found != value) wrong.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+
+        assertEquals(0, wrong.get());
+        assertTrue(table.hits() > 0);
+        assertTrue(table.collisions() > 0);
+    }
+
+    // The value each key is always stored with
+    private static int valueOf(long key) {
+        return (int) (key >>> 33);
+    }
+}
@@ -0,0 +1,446 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Micro-benchmarks for the game engine hot paths, runnable with plain java (no extra jars).
+// Every benchmark runs on the English and Diamond masks, with and without diagonal jumps, for:
+//  - "array": the original boolean[][] logic from SolitaireGUI (setupBoard, tryMove,
+//    isGameOver, countPegs), copied here headlessly as the baseline (plus the matching undo
+//    and legal move count)
+//  - "engine": the bitboard engine (PegBoard, on every shape)
+// Single moves by coordinates (engine.replayGame) are no faster than the baseline: the jump
+// itself is a couple of XORs, but the hole lookup, findJump and the history push cost as much
+// as the array version's checks. The gain shows in the queries and in engine.replayJumps, the
+// batch path that plays jump ids without history.
+// Like JMH it warms up first, measures several timed iterations and feeds every result into
+// a sink so the JIT can't remove the work. Each benchmark loops over its own operation, so
+// even the few-nanosecond ones aren't dominated by the cost of calling them. Results can be
+// saved and compared against a previous run to catch regressions.
+//
+// Usage: java EngineBenchmark [filter] [--quick] [--save file.csv] [--compare file.csv]
+public class EngineBenchmark {
+    // How much slower than the baseline a benchmark may get before --compare fails
+    private static final double REGRESSION_THRESHOLD = 1.10;
+
+    private static int warmupIterations = 5;
+    private static int measureIterations = 10;
+    private static long iterationNanos = 200_000_000L;
+
+    // Every benchmark result is folded in here so the work can't be optimized away
+    private static long sink;
+    // Boards under test. Volatile, and read again on every repetition, so the JIT can't hoist
+    // the work out of a benchmark's loop or merge repetitions.
+    private static volatile ArrayBoard array;
+    private static volatile ArrayBoard arrayMid;
+    private static volatile PegBoard engine;
+    private static volatile PegBoard engineMid;
+
+    // One benchmark: performs the operation reps times and returns something derived from the
+    // results (fed into the sink)
+    private interface Op {
+        long run(long reps);
+    }
+
+    public static void main(String[] args) throws IOException {
+        String filter = "";
+        Path save = null;
+        Path compare = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--quick")) {
+                warmupIterations = 2;
+                measureIterations = 3;
+                iterationNanos = 50_000_000L;
+            } else if (args[i].equals("--save")) {
+                save = Paths.get(args[++i]);
+            } else if (args[i].equals("--compare")) {
+                compare = Paths.get(args[++i]);
+            } else {
+                filter = args[i];
+            }
+        }
+
+        Map<String, Double> results = new LinkedHashMap<>();
+        for (String board : new String[]{"english", "diamond"}) {
+            for (boolean diagonal : new boolean[]{false, true}) {
+                runBoard(board, diagonal, filter, results);
+            }
+        }
+
+        if (save != null) {
+            List<String> lines = new ArrayList<>();
+            for (Map.Entry<String, Double> e : results.entrySet()) {
+                lines.add(e.getKey() + "," + e.getValue());
+            }
+            Files.write(save, lines);
+        }
+        if (compare != null && !compareWithBaseline(results, compare)) {
+            System.exit(1);
+        }
+        if (sink == 42) System.out.println();
+    }
+
+    // Runs every benchmark for one board/rule combination
+    private static void runBoard(String board, boolean diagonal, String filter, Map<String, Double> results) {
+        BoardShape shape = board.equals("diamond") ? BoardShape.diamond(9) : BoardShape.english();
+        RuleSet rules = diagonal ? RuleSet.withDiagonals(shape) : RuleSet.orthogonal(shape);
+        String prefix = board + (diagonal ? "+diag" : "");
+
+        // A fixed game (always the first legal jump) that both implementations replay
+        int[][] game = firstMoveGame(rules);
+        int half = game.length / 2;
+
+        array = new ArrayBoard(shape, diagonal);
+        // Separate board parked at the middle of the game for the read-only checks
+        ArrayBoard mid = new ArrayBoard(shape, diagonal);
+        mid.setupBoard();
+        for (int i = 0; i < half; i++) mid.tryMove(game[i][0], game[i][1], game[i][2], game[i][3]);
+        arrayMid = mid;
+        long start = shape.startingPosition();
+        int[] jumpIds = new int[game.length];
+        for (int i = 0; i < game.length; i++) jumpIds[i] = jumpOf(rules, game[i]);
+        long midGame = start;
+        for (int i = 0; i < half; i++) midGame = rules.apply(midGame, jumpOf(rules, game[i]));
+
+        // Each benchmark runs its own repetition loop, so the calls being measured are direct
+        // (and inlined) instead of going through one shared, megamorphic call site
+        bench(results, filter, prefix + " array.setupBoard", reps -> {
+            long sum = 0;
+            for (long i = 0; i < reps; i++) {
+                ArrayBoard b = array;
+                b.setupBoard();
+                sum += b.countPegs();
+            }
+            return sum;
+        });
+        bench(results, filter, prefix + " array.replayGame", reps -> {
+            long ok = 0;
+            for (long i = 0; i < reps; i++) {
+                ArrayBoard b = array;
+                b.setupBoard();
+                for (int[] m : game) {
+                    if (b.tryMove(m[0], m[1], m[2], m[3])) ok++;
+                }
+            }
+            return ok;
+        });
+        // Game over / legal move count after every move, and again after every undo: how a game
+        // is actually played, and what keeping the legal moves up to date has to pay for
+        bench(results, filter, prefix + " array.playQueried", reps -> {
+            long sum = 0;
+            for (long i = 0; i < reps; i++) {
+                ArrayBoard b = array;
+                b.setupBoard();
+                for (int[] m : game) {
+                    b.tryMove(m[0], m[1], m[2], m[3]);
+                    sum += (b.isGameOver() ? 1 : 0) + b.countLegalMoves();
+                }
+            }
+            return sum;
+        });
+        bench(results, filter, prefix + " array.playUndoQueried", reps -> {
+            long sum = 0;
+            for (long i = 0; i < reps; i++) {
+                ArrayBoard b = array;
+                b.setupBoard();
+                for (int[] m : game) {
+                    b.tryMove(m[0], m[1], m[2], m[3]);
+                    sum += (b.isGameOver() ? 1 : 0) + b.countLegalMoves();
+                }
+                for (int k = game.length - 1; k >= 0; k--) {
+                    int[] m = game[k];
+                    b.undoMove(m[0], m[1], m[2], m[3]);
+                    sum += (b.isGameOver() ? 1 : 0) + b.countLegalMoves();
+                }
+            }
+            return sum;
+        });
+        bench(results, filter, prefix + " array.isGameOver", reps -> {
+            long sum = 0;
+            for (long i = 0; i < reps; i++) sum += arrayMid.isGameOver() ? 1 : 0;
+            return sum;
+        });
+        bench(results, filter, prefix + " array.countPegs", reps -> {
+            long sum = 0;
+            for (long i = 0; i < reps; i++) sum += arrayMid.countPegs();
+            return sum;
+        });
+
+        // The shared PegBoard engine, the same on every shape and rule set
+        engine = new PegBoard(rules);
+        bench(results, filter, prefix + " engine.setupBoard", reps -> {
+            long sum = 0;
+            for (long i = 0; i < reps; i++) {
+                PegBoard b = engine;
+                b.reset();
+                sum += b.getPegs();
+            }
+            return sum;
+        });
+        bench(results, filter, prefix + " engine.replayGame", reps -> {
+            long ok = 0;
+            for (long i = 0; i < reps; i++) {
+                PegBoard b = engine;
+                b.reset();
+                for (int[] m : game) {
+                    if (b.tryMove(m[0], m[1], m[2], m[3])) ok++;
+                }
+            }
+            return ok;
+        });
+        // The same game as jump ids through the batch path: no coordinate lookup, no history
+        bench(results, filter, prefix + " engine.replayJumps", reps -> {
+            long sum = 0;
+            for (long i = 0; i < reps; i++) {
+                PegBoard b = engine;
+                if (b.replayJumps(start, jumpIds, jumpIds.length)) sum += b.getPegs();
+            }
+            return sum;
+        });
+        bench(results, filter, prefix + " engine.playQueried", reps -> {
+            long sum = 0;
+            for (long i = 0; i < reps; i++) {
+                PegBoard b = engine;
+                b.reset();
+                for (int[] m : game) {
+                    b.tryMove(m[0], m[1], m[2], m[3]);
+                    sum += (b.isGameOver() ? 1 : 0) + b.getLegalMoveCount();
+                }
+            }
+            return sum;
+        });
+        bench(results, filter, prefix + " engine.playUndoQueried", reps -> {
+            long sum = 0;
+            for (long i = 0; i < reps; i++) {
+                PegBoard b = engine;
+                b.reset();
+                for (int[] m : game) {
+                    b.tryMove(m[0], m[1], m[2], m[3]);
+                    sum += (b.isGameOver() ? 1 : 0) + b.getLegalMoveCount();
+                }
+                while (b.undo()) {
+                    sum += (b.isGameOver() ? 1 : 0) + b.getLegalMoveCount();
+                }
+            }
+            return sum;
+        });
+        // Parked at the middle of the game once, so only the checks themselves are timed
+        // (the legal moves are up to date after the first call: this is the cached read)
+        PegBoard engineAtMid = new PegBoard(rules);
+        engineAtMid.setPegs(midGame);
+        engineMid = engineAtMid;
+        bench(results, filter, prefix + " engine.isGameOver", reps -> {
+            long sum = 0;
+            for (long i = 0; i < reps; i++) sum += engineMid.isGameOver() ? 1 : 0;
+            return sum;
+        });
+        bench(results, filter, prefix + " engine.countPegs", reps -> {
+            long sum = 0;
+            for (long i = 0; i < reps; i++) sum += engineMid.countPegs();
+            return sum;
+        });
+    }
+
+    // Warms up, then measures the average time per call over several timed iterations
+    private static void bench(Map<String, Double> results, String filter, String name, Op op) {
+        if (!name.contains(filter)) return;
+
+        for (int i = 0; i < warmupIterations; i++) runIteration(op);
+
+        double[] samples = new double[measureIterations];
+        double mean = 0;
+        for (int i = 0; i < measureIterations; i++) {
+            samples[i] = runIteration(op);
+            mean += samples[i];
+        }
+        mean /= measureIterations;
+
+        double var = 0;
+        for (double s : samples) var += (s - mean) * (s - mean);
+        double stddev = Math.sqrt(var / Math.max(1, measureIterations - 1));
+
+        results.put(name, mean);
+        System.out.printf("%-36s %12.1f ns/op  +- %.1f%n", name, mean, stddev);
+    }
+
+    // Runs op in growing batches until the iteration time is used up; returns ns per repetition
+    private static double runIteration(Op op) {
+        long calls = 0;
+        long batch = 1;
+        long begin = System.nanoTime();
+        long elapsed;
+        do {
+            sink += op.run(batch);
+            calls += batch;
+            if (batch < 1 << 16) batch *= 2;
+            elapsed = System.nanoTime() - begin;
+        } while (elapsed < iterationNanos);
+        return (double) elapsed / calls;
+    }
+
+    // Compares results with a saved run and prints every benchmark that got slower
+    private static boolean compareWithBaseline(Map<String, Double> results, Path baseline) throws IOException {
+        boolean ok = true;
+        for (String line : Files.readAllLines(baseline)) {
+            String[] parts = line.split(",");
+            Double now = results.get(parts[0]);
+            if (now == null) continue;
+
+            double before = Double.parseDouble(parts[1]);
+            if (now > before * REGRESSION_THRESHOLD) {
+                System.out.printf("REGRESSION %-36s %.1f -> %.1f ns/op%n", parts[0], before, now);
+                ok = false;
+            }
+        }
+        return ok;
+    }
+
+    // Plays the first legal jump until no jumps are left; returns {fromR, fromC, toR, toC} moves
+    private static int[][] firstMoveGame(RuleSet rules) {
+        BoardShape shape = rules.getShape();
+        List<int[]> moves = new ArrayList<>();
+        long pegs = shape.startingPosition();
+        boolean moved = true;
+        while (moved) {
+            moved = false;
+            for (int j = 0; j < rules.jumpCount() && !moved; j++) {
+                if (!rules.canJump(pegs, j)) continue;
+                int from = rules.jumpFrom(j);
+                int to = rules.jumpTo(j);
+                moves.add(new int[]{shape.holeRow(from), shape.holeCol(from), shape.holeRow(to), shape.holeCol(to)});
+                pegs = rules.apply(pegs, j);
+                moved = true;
+            }
+        }
+        return moves.toArray(new int[0][]);
+    }
+
+    private static int jumpOf(RuleSet rules, int[] m) {
+        BoardShape shape = rules.getShape();
+        return rules.findJump(shape.holeIndex(m[0], m[1]), shape.holeIndex(m[2], m[3]));
+    }
+
+    // The board logic of SolitaireGUI (boolean[][] arrays, per-call direction checks),
+    // without the JavaFX parts, so it can be measured as the baseline.
+    private static final class ArrayBoard {
+        private final boolean[][] validHole;
+        private final boolean[][] hasPeg;
+        private final boolean allowDiagonal;
+
+        ArrayBoard(BoardShape shape, boolean allowDiagonal) {
+            int size = shape.getSize();
+            this.validHole = new boolean[size][size];
+            this.hasPeg = new boolean[size][size];
+            this.allowDiagonal = allowDiagonal;
+            for (int r = 0; r < size; r++) {
+                for (int c = 0; c < size; c++) {
+                    validHole[r][c] = shape.isValidHole(r, c);
+                }
+            }
+        }
+
+        void setupBoard() {
+            int size = validHole.length;
+            for (int r = 0; r < size; r++) {
+                for (int c = 0; c < size; c++) {
+                    hasPeg[r][c] = validHole[r][c];
+                }
+            }
+            int mid = size / 2;
+            hasPeg[mid][mid] = false;
+        }
+
+        boolean tryMove(int fromR, int fromC, int toR, int toC) {
+            if (!validHole[fromR][fromC] || !validHole[toR][toC]) return false;
+            if (!hasPeg[fromR][fromC]) return false;
+            if (hasPeg[toR][toC]) return false;
+
+            int dr = toR - fromR;
+            int dc = toC - fromC;
+            boolean isOrthogonalJump = (Math.abs(dr) == 2 && dc == 0) || (Math.abs(dc) == 2 && dr == 0);
+            boolean isDiagonalJump = allowDiagonal && (Math.abs(dr) == 2 && Math.abs(dc) == 2);
+            if (!isOrthogonalJump && !isDiagonalJump) return false;
+
+            int midR = fromR + dr / 2;
+            int midC = fromC + dc / 2;
+            if (!validHole[midR][midC]) return false;
+            if (!hasPeg[midR][midC]) return false;
+
+            hasPeg[fromR][fromC] = false;
+            hasPeg[midR][midC] = false;
+            hasPeg[toR][toC] = true;
+            return true;
+        }
+
+        boolean isGameOver() {
+            int size = validHole.length;
+            int[][] dirs = allowDiagonal
+                    ? new int[][]{{-2, 0}, {2, 0}, {0, -2}, {0, 2}, {-2, -2}, {-2, 2}, {2, -2}, {2, 2}}
+                    : new int[][]{{-2, 0}, {2, 0}, {0, -2}, {0, 2}};
+
+            for (int r = 0; r < size; r++) {
+                for (int c = 0; c < size; c++) {
+                    if (!validHole[r][c] || !hasPeg[r][c]) continue;
+                    for (int[] d : dirs) {
+                        int toR = r + d[0];
+                        int toC = c + d[1];
+                        if (!inBounds(toR, toC) || !validHole[toR][toC] || hasPeg[toR][toC]) continue;
+                        int midR = r + d[0] / 2;
+                        int midC = c + d[1] / 2;
+                        if (validHole[midR][midC] && hasPeg[midR][midC]) return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        // Takes back a move played by tryMove (the caller passes the same cells)
+        void undoMove(int fromR, int fromC, int toR, int toC) {
+            hasPeg[fromR][fromC] = true;
+            hasPeg[(fromR + toR) / 2][(fromC + toC) / 2] = true;
+            hasPeg[toR][toC] = false;
+        }
+
+        // Same scan as isGameOver, but counts every legal move instead of stopping at the first
+        int countLegalMoves() {
+            int size = validHole.length;
+            int[][] dirs = allowDiagonal
+                    ? new int[][]{{-2, 0}, {2, 0}, {0, -2}, {0, 2}, {-2, -2}, {-2, 2}, {2, -2}, {2, 2}}
+                    : new int[][]{{-2, 0}, {2, 0}, {0, -2}, {0, 2}};
+
+            int count = 0;
+            for (int r = 0; r < size; r++) {
+                for (int c = 0; c < size; c++) {
+                    if (!validHole[r][c] || !hasPeg[r][c]) continue;
+                    for (int[] d : dirs) {
+                        int toR = r + d[0];
+                        int toC = c + d[1];
+                        if (!inBounds(toR, toC) || !validHole[toR][toC] || hasPeg[toR][toC]) continue;
+                        int midR = r + d[0] / 2;
+                        int midC = c + d[1] / 2;
+                        if (validHole[midR][midC] && hasPeg[midR][midC]) count++;
+                    }
+                }
+            }
+            return count;
+        }
+
+        int countPegs() {
+            int count = 0;
+            for (int r = 0; r < validHole.length; r++) {
+                for (int c = 0; c < validHole.length; c++) {
+                    if (validHole[r][c] && hasPeg[r][c]) count++;
+                }
+            }
+            return count;
+        }
+
+        private boolean inBounds(int r, int c) {
+            return r >= 0 && c >= 0 && r < validHole.length && c < validHole.length;
+        }
+    }
+}
@@ -1,35 +1,24 @@
 // Represents the English Solitaire game board, which is a 7x7 grid with a cross shape.
 // The center hole starts empty, and players jump pegs to remove them, aiming to leave one peg.
+// All the game logic lives in the shared PegBoard engine; this class fixes it to the
+// English cross with orthogonal jumps.
 public class EnglishSolitaireGame {
     // The size of the board (7x7 for English Solitaire)
     private final int SIZE = 7;
-    // 2D array indicating which positions are valid holes (part of the cross shape)
-    private boolean[][] validHole;
-    // 2D array indicating which valid holes currently have pegs
-    private boolean[][] hasPeg;
+    // The cross shape and its precompiled jump tables (shared by every game, never changes)
+    private static final BoardShape SHAPE = BoardShape.english();
+    private static final RuleSet RULES = RuleSet.orthogonal(SHAPE);
+    // The engine holding the position
+    private final PegBoard board = new PegBoard(RULES);
 
     // Constructor: initializes the game by setting up the board
     public EnglishSolitaireGame() {
         setupBoard();
     }
 
-    // Sets up the board: creates the cross shape for valid holes and places pegs in all valid holes except the center
+    // Sets up the board: places pegs in all valid holes except the center
     public void setupBoard() {
-        validHole = new boolean[SIZE][SIZE];
-        hasPeg = new boolean[SIZE][SIZE];
-
-        // English board shape: a cross where rows/cols 2-4 are always valid, but corners are invalid
-        for (int r = 0; r < SIZE; r++) {
-            for (int c = 0; c < SIZE; c++) {
-                // A hole is valid if it's not in the corners (where both row and col are outside 2-4)
-                boolean valid = !((r < 2 || r > 4) && (c < 2 || c > 4));
-                validHole[r][c] = valid;
-                hasPeg[r][c] = valid;  // Start with pegs in all valid holes
-            }
-        }
-
-        // Center starts empty (no peg)
-        hasPeg[3][3] = false;
+        board.reset();
     }
 
     // Returns the size of the board (always 7 for English Solitaire)
@@ -39,109 +28,94 @@ public class EnglishSolitaireGame {
 
     // Checks if the given position is a valid hole on the board
     public boolean isValidHole(int r, int c) {
-        return validHole[r][c];
+        return board.isValidHole(r, c);
     }
 
     // Checks if there is a peg at the given position
     public boolean hasPeg(int r, int c) {
-        return hasPeg[r][c];
+        return board.hasPeg(r, c);
     }
 
     // Attempts to move a peg from (fromR, fromC) to (toR, toC) by jumping over another peg.
     // Returns true if the move is valid and performed, false otherwise.
     public boolean tryMove(int fromR, int fromC, int toR, int toC) {
-        // Check if both positions are within the board bounds
-        if (!inBounds(fromR, fromC) || !inBounds(toR, toC)) return false;
-        // Check if both positions are valid holes
-        if (!validHole[fromR][fromC] || !validHole[toR][toC]) return false;
-        // Check if there's a peg at the starting position
-        if (!hasPeg[fromR][fromC]) return false;
-        // Check if the destination is empty
-        if (hasPeg[toR][toC]) return false;
+        return board.tryMove(fromR, fromC, toR, toC);
+    }
 
-        // Calculate the direction of the move
-        int dr = toR - fromR;
-        int dc = toC - fromC;
+    // Checks if the game is over by seeing if any valid moves are possible.
+    // Returns true if no moves can be made, false otherwise.
+    public boolean isGameOver() {
+        return board.isGameOver();
+    }
 
-        // Check if it's an orthogonal jump (exactly 2 spaces in one direction)
-        boolean isOrthogonalJump =
-                (Math.abs(dr) == 2 && dc == 0) ||
-                (Math.abs(dc) == 2 && dr == 0);
+    // Returns how many legal moves the current position has
+    public int getLegalMoveCount() {
+        return board.getLegalMoveCount();
+    }
 
-        if (!isOrthogonalJump) return false;
+    // Checks if moving from (fromR, fromC) to (toR, toC) is currently legal, without moving
+    public boolean isLegalMove(int fromR, int fromC, int toR, int toC) {
+        return board.isLegalMove(fromR, fromC, toR, toC);
+    }
 
-        // Calculate the middle position that must be jumped over
-        int midR = fromR + dr / 2;
-        int midC = fromC + dc / 2;
+    // Fills out with every legal move of the current position, packed with PackedMove, and
+    // returns how many there are (see PegBoard.getLegalMoves)
+    public int getLegalMoves(int[] out) {
+        return board.getLegalMoves(out);
+    }
 
-        // Check if the middle position is a valid hole and has a peg
-        if (!validHole[midR][midC]) return false;
-        if (!hasPeg[midR][midC]) return false;
+    // Plays a packed move (as returned by getLegalMoves). Returns false if it isn't legal.
+    public boolean playMove(int move) {
+        return board.playMove(move);
+    }
 
-        // Perform the move: remove peg from start and middle, add to destination
-        hasPeg[fromR][fromC] = false;
-        hasPeg[midR][midC] = false;
-        hasPeg[toR][toC] = true;
+    // Takes back the last move. Returns false if there is nothing to undo.
+    public boolean undo() {
+        return board.undo();
+    }
 
-        return true;
+    // Plays the last undone move again. Returns false if there is nothing to redo.
+    public boolean redo() {
+        return board.redo();
     }
 
-    // Checks if the game is over by seeing if any valid moves are possible.
-    // Returns true if no moves can be made, false otherwise.
-    public boolean isGameOver() {
-        // Define the four possible jump directions: up, down, left, right (each 2 spaces)
-        int[][] dirs = {
-            {-2, 0}, {2, 0}, {0, -2}, {0, 2}
-        };
-
-        // Loop through every position on the board
-        for (int r = 0; r < SIZE; r++) {
-            for (int c = 0; c < SIZE; c++) {
-                // Skip if not a valid hole or no peg here
-                if (!validHole[r][c] || !hasPeg[r][c]) continue;
-
-                // Check each possible jump direction from this position
-                for (int[] d : dirs) {
-                    int toR = r + d[0];
-                    int toC = c + d[1];
-
-                    // Skip if destination is out of bounds
-                    if (!inBounds(toR, toC)) continue;
-                    // Skip if destination is not a valid hole
-                    if (!validHole[toR][toC]) continue;
-                    // Skip if destination already has a peg
-                    if (hasPeg[toR][toC]) continue;
-
-                    // Calculate the middle position
-                    int midR = r + d[0] / 2;
-                    int midC = c + d[1] / 2;
-
-                    // If middle has a peg and is valid, then a move is possible
-                    if (validHole[midR][midC] && hasPeg[midR][midC]) {
-                        return false;  // Game not over, move available
-                    }
-                }
-            }
-        }
-
-        return true;  // No moves possible, game over
+    // Returns how many moves have been played (undone moves don't count)
+    public int getMoveCount() {
+        return board.historySize();
     }
 
     // Counts the number of pegs currently on the board (in valid holes)
     public int countPegs() {
-        int count = 0;
-        for (int r = 0; r < SIZE; r++) {
-            for (int c = 0; c < SIZE; c++) {
-                if (validHole[r][c] && hasPeg[r][c]) {
-                    count++;
-                }
-            }
-        }
-        return count;
-    }
-
-    // Helper method: checks if the given row and column are within the board bounds
-    private boolean inBounds(int r, int c) {
-        return r >= 0 && c >= 0 && r < SIZE && c < SIZE;
-    }
-}
\ No newline at end of file
+        return board.countPegs();
+    }
+
+    // Returns the packed position (bit i = peg in hole i), e.g. for solvers and batch tools
+    public long getPegs() {
+        return board.getPegs();
+    }
+
+    // Returns the Zobrist hash of the current position (updated incrementally on every move)
+    public long getHash() {
+        return board.getHash();
+    }
+
+    // Replaces the current position with a packed one; bits outside the board are ignored
+    public void setPegs(long pegs) {
+        board.setPegs(pegs);
+    }
+
+    // Returns the underlying engine
+    public PegBoard getBoard() {
+        return board;
+    }
+
+    // Returns the shape of the English board (hole indexes used by getPegs/setPegs)
+    public static BoardShape getShape() {
+        return SHAPE;
+    }
+
+    // Returns the compiled jump rules for the English board
+    public static RuleSet getRules() {
+        return RULES;
+    }
+}
@@ -134,4 +134,84 @@ public class EnglishSolitaireGameTest {
         assertTrue(moved);
         assertEquals(beforeMove - 1, afterMove);
     }
-}
\ No newline at end of file
+
+    /**
+     * Test that a jump over an empty hole fails.
+     * After (3,1) -> (3,3), the hole at (3,2) is empty, so (3,3) cannot jump back over it.
+     */
+    @Test
+    void jumpOverEmptyHoleShouldFail() {
+        EnglishSolitaireGame game = new EnglishSolitaireGame();
+        assertTrue(game.tryMove(3, 1, 3, 3));
+
+        assertFalse(game.tryMove(3, 3, 3, 1));
+        assertFalse(game.tryMove(-1, 3, 1, 3)); // Off the board
+    }
+
+    /**
+     * Test that a board with two pegs that cannot reach each other is game over.
+     */
+    @Test
+    void isolatedPegsShouldBeGameOver() {
+        EnglishSolitaireGame game = new EnglishSolitaireGame();
+        BoardShape shape = EnglishSolitaireGame.getShape();
+
+        long pegs = (1L << shape.holeIndex(0, 2)) | (1L << shape.holeIndex(6, 4));
+        game.setPegs(pegs);
+
+        assertEquals(2, game.countPegs());
+        assertTrue(game.isGameOver());
+        assertEquals(pegs, game.getPegs());
+    }
+
+    /**
+     * Test that the incrementally tracked legal moves always match a full recount
+     * while a whole game is played.
+     */
+    @Test
+    void legalMoveCountShouldMatchFullScan() {
+        EnglishSolitaireGame game = new EnglishSolitaireGame();
+        RuleSet rules = EnglishSolitaireGame.getRules();
+        BoardShape shape = EnglishSolitaireGame.getShape();
+
+        assertEquals(4, game.getLegalMoveCount());
+        while (!game.isGameOver()) {
+            int expected = 0;
+            int last = -1;
+            for (int j = 0; j < rules.jumpCount(); j++) {
+                if (rules.canJump(game.getPegs(), j)) {
+                    expected++;
+                    last = j;
+                }
+            }
+            assertEquals(expected, game.getLegalMoveCount());
+
+            int from = rules.jumpFrom(last);
+            int to = rules.jumpTo(last);
+            assertTrue(game.isLegalMove(shape.holeRow(from), shape.holeCol(from), shape.holeRow(to), shape.holeCol(to)));
+            assertTrue(game.tryMove(shape.holeRow(from), shape.holeCol(from), shape.holeRow(to), shape.holeCol(to)));
+        }
+        assertEquals(0, rules.legalJumps(game.getPegs(), new int[rules.jumpCount()]));
+    }
+
+    /**
+     * Test that the packed legal moves of the start are the four jumps into the center,
+     * and that playing one of them works.
+     */
+    @Test
+    void legalMovesShouldBeFilledIntoCallerArray() {
+        EnglishSolitaireGame game = new EnglishSolitaireGame();
+        BoardShape shape = EnglishSolitaireGame.getShape();
+        int[] moves = new int[EnglishSolitaireGame.getRules().jumpCount()];
+
+        int count = game.getLegalMoves(moves);
+
+        assertEquals(4, count);
+        for (int i = 0; i < count; i++) {
+            assertEquals(shape.centerHole(), PackedMove.to(moves[i]));
+        }
+        assertTrue(game.playMove(moves[0]));
+        assertFalse(game.playMove(moves[0])); // Destination is now full
+        assertEquals(31, game.countPegs());
+    }
+}
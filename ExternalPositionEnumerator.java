@@ -0,0 +1,255 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+// Disk-based version of PositionEnumerator for state spaces that don't fit in the heap
+// (the 9x9 diamond, diagonal rules, bigger custom masks).
+// Each level lives in a file of sorted, duplicate-free positions. To build the next level the
+// parents are streamed from the memory-mapped level file, their children are collected in a
+// fixed-size buffer, and every full buffer is sorted and written out as a run file. The runs are
+// then merged (k-way, memory-mapped) into the next level file, dropping duplicates. At most
+// DEFAULT_FAN_IN runs are open at once: with more, groups of runs are first merged into bigger
+// intermediate runs, pass after pass, so big levels don't run out of file handles or mappings.
+// Heap use is just the child buffer, plus one direct write buffer shared by every file written.
+// On disk, the parent level and the runs of the next level exist together while expanding, and
+// the runs and the next level while merging; the parent file is deleted before the merge. Readers
+// unmap their windows when closed and every file is closed before it is deleted, so deleted files
+// give their space back at once and free disk space is the only limit.
+public class ExternalPositionEnumerator {
+    // Default child buffer: 8M positions = 64 MB, plus the same again for sorting
+    private static final int DEFAULT_CHUNK = 1 << 23;
+    // Default number of run files merged at once
+    private static final int DEFAULT_FAN_IN = 64;
+
+    // Called once per finished level. The file holds count sorted positions (see MappedLongReader)
+    // and is deleted after the call unless level files are kept.
+    public interface LevelListener {
+        void onLevel(int pegs, long count, Path file) throws IOException;
+    }
+
+    // Used to expand positions into children (and canonicalize them)
+    private final PositionEnumerator expander;
+    private final int jumps;
+    private final Path workDir;
+    private final int chunkSize;
+    private boolean keepLevelFiles;
+    private int fanIn = DEFAULT_FAN_IN;
+    // Write buffer shared by all LongFileWriters (only one is open at a time)
+    private ByteBuffer writeBuffer;
+
+    public ExternalPositionEnumerator(RuleSet rules, boolean canonical, Path workDir, int chunkSize) {
+        this.expander = new PositionEnumerator(rules, canonical, chunkSize);
+        this.jumps = rules.jumpCount();
+        this.workDir = workDir;
+        this.chunkSize = chunkSize;
+    }
+
+    // If set, level files are left in the work directory instead of being deleted
+    public void setKeepLevelFiles(boolean keep) {
+        this.keepLevelFiles = keep;
+    }
+
+    // Sets how many run files are merged at once (at least 2)
+    public void setMergeFanIn(int fanIn) {
+        if (fanIn < 2) throw new IllegalArgumentException("Fan-in must be at least 2: " + fanIn);
+        this.fanIn = fanIn;
+    }
+
+    // Walks the levels from start down to minPegs pegs (or until no moves are left) and
+    // reports each one to the listener. Returns the total number of positions found.
+    public long enumerate(long start, int minPegs, LevelListener listener) throws IOException {
+        Files.createDirectories(workDir);
+        if (writeBuffer == null) writeBuffer = LongFileWriter.newBuffer();
+        int pegs = Long.bitCount(start);
+
+        Path levelFile = levelFile(pegs);
+        try (LongFileWriter out = new LongFileWriter(levelFile, writeBuffer)) {
+            out.write(expander.key(start));
+        }
+        long count = 1;
+        long total = 0;
+
+        long[] chunk = new long[chunkSize];
+        long[] scratch = new long[chunkSize];
+
+        while (count > 0) {
+            listener.onLevel(pegs, count, levelFile);
+            total += count;
+            if (pegs <= minPegs) {
+                deleteLevel(levelFile);
+                break;
+            }
+
+            // Expand every parent, spilling a sorted run each time the buffer fills up
+            List<Path> runs = new ArrayList<>();
+            int filled = 0;
+            try (MappedLongReader parents = new MappedLongReader(levelFile)) {
+                while (parents.hasNext()) {
+                    if (filled + jumps > chunkSize) {
+                        runs.add(writeRun(chunk, filled, scratch, pegs - 1, runs.size()));
+                        filled = 0;
+                    }
+                    filled = expander.children(parents.next(), chunk, filled);
+                }
+            }
+            if (filled > 0) {
+                runs.add(writeRun(chunk, filled, scratch, pegs - 1, runs.size()));
+            }
+            deleteLevel(levelFile);
+
+            pegs--;
+            levelFile = levelFile(pegs);
+            count = mergeLevel(runs, pegs, levelFile);
+        }
+        // The walk ran out of moves: the last level file is empty and was never reported
+        if (count == 0) Files.deleteIfExists(levelFile);
+        return total;
+    }
+
+    private Path levelFile(int pegs) {
+        return workDir.resolve("level-" + pegs + ".bin");
+    }
+
+    private void deleteLevel(Path file) throws IOException {
+        if (!keepLevelFiles) Files.deleteIfExists(file);
+    }
+
+    // Sorts and de-duplicates chunk[0..filled) and writes it as a run file
+    private Path writeRun(long[] chunk, int filled, long[] scratch, int pegs, int index) throws IOException {
+        LongSorts.radixSort(chunk, filled, scratch);
+        int unique = LongSorts.unique(chunk, filled);
+
+        Path run = workDir.resolve("run-" + pegs + "-" + index + ".bin");
+        try (LongFileWriter out = new LongFileWriter(run, writeBuffer)) {
+            out.write(chunk, unique);
+        }
+        return run;
+    }
+
+    // Merges the runs of one level into its level file, in passes of at most fanIn runs, and
+    // deletes the runs. Returns the number of positions in the level.
+    private long mergeLevel(List<Path> runs, int pegs, Path target) throws IOException {
+        int pass = 0;
+        while (runs.size() > fanIn) {
+            List<Path> merged = new ArrayList<>();
+            for (int from = 0; from < runs.size(); from += fanIn) {
+                List<Path> group = runs.subList(from, Math.min(from + fanIn, runs.size()));
+                Path run = workDir.resolve("merge-" + pegs + "-" + pass + "-" + merged.size() + ".bin");
+                mergeRuns(group, run);
+                deleteRuns(group);
+                merged.add(run);
+            }
+            runs = merged;
+            pass++;
+        }
+        long count = mergeRuns(runs, target);
+        deleteRuns(runs);
+        return count;
+    }
+
+    private static void deleteRuns(List<Path> runs) throws IOException {
+        for (Path run : runs) {
+            Files.deleteIfExists(run);
+        }
+    }
+
+    // k-way merge of sorted run files into one sorted, duplicate-free file.
+    // Returns the number of values written.
+    private long mergeRuns(List<Path> runs, Path target) throws IOException {
+        int k = runs.size();
+        MappedLongReader[] readers = new MappedLongReader[k];
+        long[] heads = new long[k];
+        // Binary min-heap of run indexes, ordered by their current head value
+        int[] heap = new int[k];
+        int heapSize = 0;
+
+        try (LongFileWriter out = new LongFileWriter(target, writeBuffer)) {
+            for (int i = 0; i < k; i++) {
+                readers[i] = new MappedLongReader(runs.get(i));
+                if (readers[i].hasNext()) {
+                    heads[i] = readers[i].next();
+                    heap[heapSize] = i;
+                    siftUp(heap, heapSize++, heads);
+                }
+            }
+
+            long last = 0;
+            boolean any = false;
+            while (heapSize > 0) {
+                int run = heap[0];
+                long value = heads[run];
+                if (!any || value != last) {
+                    out.write(value);
+                    last = value;
+                    any = true;
+                }
+
+                if (readers[run].hasNext()) {
+                    heads[run] = readers[run].next();
+                } else {
+                    heap[0] = heap[--heapSize];
+                }
+                siftDown(heap, heapSize, heads);
+            }
+            return out.count();
+        } finally {
+            for (MappedLongReader reader : readers) {
+                if (reader != null) reader.close();
+            }
+        }
+    }
+
+    private static void siftUp(int[] heap, int i, long[] heads) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (Long.compareUnsigned(heads[heap[parent]], heads[heap[i]]) <= 0) break;
+            swap(heap, parent, i);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int size, long[] heads) {
+        int i = 0;
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && Long.compareUnsigned(heads[heap[left]], heads[heap[smallest]]) < 0) smallest = left;
+            if (right < size && Long.compareUnsigned(heads[heap[right]], heads[heap[smallest]]) < 0) smallest = right;
+            if (smallest == i) return;
+            swap(heap, i, smallest);
+            i = smallest;
+        }
+    }
+
+    private static void swap(int[] heap, int a, int b) {
+        int t = heap[a];
+        heap[a] = heap[b];
+        heap[b] = t;
+    }
+
+    // Command-line entry point: enumerates a board on disk and prints the count per level.
+    // Usage: java ExternalPositionEnumerator <workDir> [english|diamond] [diagonal] [all]
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java ExternalPositionEnumerator <workDir> [english|diamond] [diagonal] [all]");
+            return;
+        }
+        Path dir = Paths.get(args[0]);
+        BoardShape shape = args.length > 1 && args[1].equalsIgnoreCase("diamond")
+                ? BoardShape.diamond(9) : BoardShape.english();
+        boolean diagonal = args.length > 2 && args[2].equalsIgnoreCase("diagonal");
+        boolean canonical = !(args.length > 3 && args[3].equalsIgnoreCase("all"));
+        RuleSet rules = diagonal ? RuleSet.withDiagonals(shape) : RuleSet.orthogonal(shape);
+
+        long begin = System.nanoTime();
+        long total = new ExternalPositionEnumerator(rules, canonical, dir, DEFAULT_CHUNK).enumerate(
+                shape.startingPosition(), 1,
+                (pegs, count, file) -> System.out.printf("%2d pegs: %,d positions%n", pegs, count));
+        System.out.printf("total: %,d positions in %.2f s%n", total, (System.nanoTime() - begin) / 1e9);
+    }
+}
@@ -0,0 +1,77 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for ExternalPositionEnumerator.
+ * The disk-based enumeration must produce exactly the same levels as the in-memory one.
+ */
+public class ExternalPositionEnumeratorTest {
+
+    /**
+     * Test that the first levels of the English board match PositionEnumerator, using a tiny
+     * buffer so every level is split into many run files, and that level files are sorted.
+     */
+    @Test
+    void levelsShouldMatchInMemoryEnumeration(@TempDir Path dir) throws IOException {
+        RuleSet rules = RuleSet.orthogonal(BoardShape.english());
+        long start = BoardShape.english().startingPosition();
+
+        List<Long> expected = new ArrayList<>();
+        new PositionEnumerator(rules, true, 1 << 16).enumerate(start, 24,
+                (pegs, positions, count) -> expected.add((long) count));
+
+        List<Long> actual = new ArrayList<>();
+        ExternalPositionEnumerator external = new ExternalPositionEnumerator(rules, true, dir, 500);
+        external.enumerate(start, 24, (pegs, count, file) -> {
+            actual.add(count);
+            try (MappedLongReader in = new MappedLongReader(file)) {
+                assertEquals(count, in.size());
+                long prev = -1;
+                while (in.hasNext()) {
+                    long value = in.next();
+                    assertTrue(value > prev);
+                    prev = value;
+                }
+            }
+        });
+
+        assertEquals(expected, actual);
+        // Runs and level files are cleaned up afterwards
+        try (var files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    /**
+     * Test that a level split into more runs than the merge fan-in is merged in several passes
+     * and still matches PositionEnumerator.
+     */
+    @Test
+    void levelsWithMoreRunsThanTheFanInShouldMergeInPasses(@TempDir Path dir) throws IOException {
+        RuleSet rules = RuleSet.orthogonal(BoardShape.english());
+        long start = BoardShape.english().startingPosition();
+
+        List<Long> expected = new ArrayList<>();
+        new PositionEnumerator(rules, false, 1 << 16).enumerate(start, 26,
+                (pegs, positions, count) -> expected.add((long) count));
+
+        // Chunks of 100 children split the deeper levels into dozens of runs, far more than 3
+        List<Long> actual = new ArrayList<>();
+        ExternalPositionEnumerator external = new ExternalPositionEnumerator(rules, false, dir, 100);
+        external.setMergeFanIn(3);
+        external.enumerate(start, 26, (pegs, count, file) -> actual.add(count));
+
+        assertEquals(expected, actual);
+        assertTrue(expected.get(expected.size() - 1) > 100 * 3 * 3);
+        try (var files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+        assertThrows(IllegalArgumentException.class, () -> external.setMergeFanIn(1));
+    }
+}
@@ -0,0 +1,194 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Streams the games of an archive written by GameRecordWriter through memory-mapped windows.
+// next() moves to the following record and the accessors read it straight out of the mapping,
+// so iterating millions of games allocates nothing per game.
+//
+//   try (GameRecordReader in = new GameRecordReader(file)) {
+//       while (in.next()) { ... in.moveCount(), in.jump(i), in.replayInto(board) ... }
+//   }
+public final class GameRecordReader implements AutoCloseable {
+    // Default size of one mapped window
+    private static final long DEFAULT_WINDOW_BYTES = 1L << 27;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final long windowBytes;
+    private final BoardShape shape;
+    private final RuleSet rules;
+    private final int moveBytes;
+
+    // File offset of the next record
+    private long position;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long windowEnd;
+
+    // Current record: where its moves start inside the window, its start hole and move count
+    private int movesAt;
+    private int startHole;
+    private int moveCount;
+    private long records;
+
+    // Scratch for replayInto (packed moves of the current record)
+    private final int[] packed = new int[BoardShape.MAX_HOLES];
+
+    public GameRecordReader(Path file) throws IOException {
+        this(file, DEFAULT_WINDOW_BYTES);
+    }
+
+    // windowBytes = how much of the file is mapped at a time (mostly useful for tests)
+    public GameRecordReader(Path file, long windowBytes) throws IOException {
+        // Big enough for the largest header (64 rows) and any record
+        if (windowBytes < 1024) {
+            throw new IllegalArgumentException("Window must be at least 1 KB");
+        }
+        this.windowBytes = windowBytes;
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        fileSize = channel.size();
+
+        // Header: magic, version, bytes per move, rule set
+        map(0);
+        try {
+            if (windowEnd < 6 || window.getInt() != GameRecordWriter.MAGIC) {
+                throw new IOException(file + " is not a game record file");
+            }
+            int version = window.get();
+            if (version != GameRecordWriter.VERSION) {
+                throw new IOException("Unsupported game record version " + version);
+            }
+            moveBytes = window.get();
+            if (moveBytes != 1 && moveBytes != 2) {
+                throw new IOException("Bad header in " + file);
+            }
+            rules = RuleSetHeader.read(window);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        shape = rules.getShape();
+        position = window.position();
+    }
+
+    // Returns the board shape stored in the header
+    public BoardShape getShape() {
+        return shape;
+    }
+
+    // Returns the rule set the jump ids refer to
+    public RuleSet getRules() {
+        return rules;
+    }
+
+    // Moves to the next game. Returns false when there are no more.
+    public boolean next() throws IOException {
+        if (position >= fileSize) return false;
+        // Remap when the rest of the window might not hold a whole record
+        if (windowEnd - position < GameRecordWriter.MAX_RECORD_BYTES && windowEnd < fileSize) {
+            map(position);
+        }
+
+        int at = (int) (position - windowStart);
+        if (position + 2 > fileSize) throw new IOException("Truncated record at byte " + position);
+        startHole = window.get(at) & 0xFF;
+        moveCount = window.get(at + 1) & 0xFF;
+        // A game on n holes has fewer than n moves; a larger count would also run past MAX_RECORD_BYTES
+        if (moveCount >= shape.getHoleCount()) {
+            throw new IOException("Corrupt record at byte " + position + ": " + moveCount + " moves");
+        }
+        movesAt = at + 2;
+        position += 2 + (long) moveCount * moveBytes;
+        if (position > fileSize) throw new IOException("Truncated record at byte " + (windowStart + at));
+        if (startHole >= shape.getHoleCount()) throw new IOException("Bad start hole at byte " + (windowStart + at));
+        records++;
+        return true;
+    }
+
+    // Returns how many games have been read so far
+    public long recordsRead() {
+        return records;
+    }
+
+    // The hole that was empty at the start of the current game
+    public int startHole() {
+        return startHole;
+    }
+
+    // The starting position of the current game
+    public long startPosition() {
+        return shape.startingPosition(startHole);
+    }
+
+    // Number of moves in the current game
+    public int moveCount() {
+        return moveCount;
+    }
+
+    // The i-th jump id of the current game (may be out of range in a corrupt file; replayInto checks it)
+    public int jump(int i) {
+        if (moveBytes == 1) return window.get(movesAt + i) & 0xFF;
+        return window.getShort(movesAt + 2 * i) & 0xFFFF;
+    }
+
+    // Replays the current game onto a board with the same layout and rules.
+    // Returns false if the game has an illegal move (the board is left as it was).
+    public boolean replayInto(PegBoard board) {
+        if (!RuleSetHeader.sameRules(board.getRules(), rules)) {
+            throw new IllegalArgumentException("Board doesn't match the shape and rules of this archive");
+        }
+        for (int i = 0; i < moveCount; i++) {
+            int jump = jump(i);
+            if (jump >= rules.jumpCount()) return false;
+            packed[i] = PackedMove.of(rules, jump);
+        }
+        return board.replay(startPosition(), packed, moveCount);
+    }
+
+    // Replays the current game into an EnglishSolitaireGame (the archive must be English, orthogonal)
+    public boolean replayInto(EnglishSolitaireGame game) {
+        return replayInto(game.getBoard());
+    }
+
+    // Raw access for GameRecordVerifier, which hands byte ranges of the mapping to its workers
+    // instead of copying the moves out.
+
+    // The mapped window holding the current record (never changed once mapped; next() maps a
+    // new one when needed, so older windows stay valid for whoever still holds them)
+    ByteBuffer window() {
+        return window;
+    }
+
+    // Offset of the current record (its start hole byte) inside window()
+    int recordStart() {
+        return movesAt - 2;
+    }
+
+    // Bytes per jump id (1 or 2)
+    int moveBytes() {
+        return moveBytes;
+    }
+
+    // Checks if the following record lies in another window than the current one
+    boolean nextNeedsRemap() {
+        return position < fileSize && windowEnd - position < GameRecordWriter.MAX_RECORD_BYTES && windowEnd < fileSize;
+    }
+
+    // Maps the window starting at the given file offset
+    private void map(long start) throws IOException {
+        long length = Math.min(windowBytes, fileSize - start);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        windowStart = start;
+        windowEnd = start + length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+}
@@ -0,0 +1,181 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for GameRecordWriter and GameRecordReader.
+ * Games written to an archive must read back and replay to the same final positions.
+ */
+public class GameRecordTest {
+
+    /**
+     * Test that random English games round-trip, using a tiny window so the reader has to remap
+     * many times, and that they replay into EnglishSolitaireGame.
+     */
+    @Test
+    void englishGamesShouldRoundTrip(@TempDir Path dir) throws IOException {
+        RuleSet rules = EnglishSolitaireGame.getRules();
+        Path file = dir.resolve("english.pegr");
+        long[] finals = writeRandomGames(file, rules, 2_000, 7);
+
+        EnglishSolitaireGame game = new EnglishSolitaireGame();
+        try (GameRecordReader in = new GameRecordReader(file, 1024)) {
+            assertSame(BoardShape.english(), in.getShape());
+            assertFalse(in.getRules().allowsDiagonals());
+            int i = 0;
+            while (in.next()) {
+                assertTrue(in.replayInto(game));
+                assertEquals(finals[i++], game.getPegs());
+                assertTrue(game.isGameOver());
+            }
+            assertEquals(finals.length, i);
+            assertEquals(finals.length, in.recordsRead());
+        }
+    }
+
+    /**
+     * Test a board with more than 256 jumps, which stores two bytes per move.
+     */
+    @Test
+    void wideRuleSetsShouldUseTwoByteMoves(@TempDir Path dir) throws IOException {
+        boolean[][] square = new boolean[8][8];
+        for (boolean[] row : square) Arrays.fill(row, true);
+        RuleSet rules = RuleSet.withDiagonals(new BoardShape(square));
+        assertTrue(rules.jumpCount() > 256);
+
+        Path file = dir.resolve("square.pegr");
+        long[] finals = writeRandomGames(file, rules, 200, 11);
+
+        try (GameRecordReader in = new GameRecordReader(file)) {
+            assertEquals(rules.jumpCount(), in.getRules().jumpCount());
+            PegBoard board = new PegBoard(in.getRules());
+            int i = 0;
+            while (in.next()) {
+                assertTrue(in.replayInto(board));
+                assertEquals(finals[i++], board.getPegs());
+            }
+            assertEquals(finals.length, i);
+        }
+    }
+
+    /**
+     * Test that a file cut in the middle of a record is reported instead of read past its end.
+     */
+    @Test
+    void truncatedFileShouldFail(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("cut.pegr");
+        writeRandomGames(file, EnglishSolitaireGame.getRules(), 3, 1);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+
+        try (GameRecordReader in = new GameRecordReader(file)) {
+            assertThrows(IOException.class, () -> {
+                while (in.next()) {
+                    // read until the broken record
+                }
+            });
+        }
+    }
+
+    /**
+     * Test that a record whose move count can't fit the board is reported instead of replayed.
+     */
+    @Test
+    void corruptMoveCountShouldFail(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("corrupt.pegr");
+        writeRandomGames(file, EnglishSolitaireGame.getRules(), 3, 1);
+
+        // Find the second record's count byte and overwrite it
+        long countAt;
+        try (GameRecordReader in = new GameRecordReader(file)) {
+            assertTrue(in.next());
+            // The first window starts at byte 0; a record is 2 header bytes plus its moves
+            countAt = in.recordStart() + 2 + in.moveCount() * in.moveBytes() + 1;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] { (byte) 200 }), countAt);
+        }
+
+        try (GameRecordReader in = new GameRecordReader(file)) {
+            assertTrue(in.next());
+            assertThrows(IOException.class, in::next);
+        }
+    }
+
+    /**
+     * Test that a game with a bad jump id is rejected without leaving part of it in the file,
+     * so the games appended afterwards still read back.
+     */
+    @Test
+    void rejectedGameShouldNotCorruptTheArchive(@TempDir Path dir) throws IOException {
+        RuleSet rules = EnglishSolitaireGame.getRules();
+        int center = rules.getShape().centerHole();
+        Path file = dir.resolve("rejected.pegr");
+        int first = rules.findJump(rules.getShape().holeIndex(1, 3), center);
+
+        try (GameRecordWriter out = new GameRecordWriter(file, rules)) {
+            out.append(center, new int[] { first }, 1);
+            assertThrows(IllegalArgumentException.class,
+                    () -> out.append(center, new int[] { first, rules.jumpCount() }, 2));
+            out.append(center, new int[] { first }, 1);
+            assertEquals(2, out.count());
+        }
+
+        try (GameRecordReader in = new GameRecordReader(file)) {
+            for (int i = 0; i < 2; i++) {
+                assertTrue(in.next());
+                assertEquals(center, in.startHole());
+                assertEquals(1, in.moveCount());
+                assertEquals(first, in.jump(0));
+            }
+            assertFalse(in.next());
+        }
+    }
+
+    /**
+     * Test that a board played under other rules is rejected instead of archived with jump ids
+     * that mean something else.
+     */
+    @Test
+    void boardWithOtherRulesShouldBeRejected(@TempDir Path dir) throws IOException {
+        RuleSet rules = EnglishSolitaireGame.getRules();
+        PegBoard diagonal = new PegBoard(RuleSet.withDiagonals(BoardShape.english()));
+        PegBoard diamond = new PegBoard(RuleSet.orthogonal(BoardShape.diamond(9)));
+
+        try (GameRecordWriter out = new GameRecordWriter(dir.resolve("other.pegr"), rules)) {
+            assertThrows(IllegalArgumentException.class, () -> out.append(0, diagonal));
+            assertThrows(IllegalArgumentException.class, () -> out.append(0, diamond));
+            out.append(rules.getShape().centerHole(), new PegBoard(RuleSet.orthogonal(BoardShape.english())));
+            assertEquals(1, out.count());
+        }
+    }
+
+    // Plays random games from the standard start and archives them; returns the final positions
+    private static long[] writeRandomGames(Path file, RuleSet rules, int games, long seed) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        PegBoard board = new PegBoard(rules);
+        int[] moves = new int[rules.jumpCount()];
+        long[] finals = new long[games];
+        try (GameRecordWriter out = new GameRecordWriter(file, rules)) {
+            for (int g = 0; g < games; g++) {
+                board.reset();
+                int count;
+                while ((count = board.getLegalMoves(moves)) > 0) {
+                    board.playMove(moves[random.nextInt(count)]);
+                }
+                out.append(rules.getShape().centerHole(), board);
+                finals[g] = board.getPegs();
+            }
+            assertEquals(games, out.count());
+        }
+        return finals;
+    }
+}
@@ -0,0 +1,245 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Checks a whole archive of claimed solutions (see GameRecordWriter) on every core.
+// The calling thread only walks the record headers to cut the file into batches (byte ranges
+// of the memory-mapped file); each worker decodes its own range and replays the games on packed
+// positions with the same checks as PegBoard.tryMove (from + over have pegs, to is empty).
+// Results are collected batch by batch in file order, so failures are reported in order and
+// memory stays bounded however big the file is.
+public class GameRecordVerifier {
+    // Passed as the move index when every move is legal but the game doesn't end solved
+    public static final int NOT_SOLVED = -1;
+
+    // Records per batch handed to a worker
+    private static final int BATCH_RECORDS = 4096;
+    // Per-record result meaning "valid solution"
+    private static final int OK = -2;
+
+    // Called for every record that isn't a valid solution, in file order, on the calling thread.
+    // move = index of the first illegal move, or NOT_SOLVED.
+    public interface FailureListener {
+        void onFailure(long record, int move);
+    }
+
+    // Totals of one verify call
+    public static final class Report {
+        private final long records;
+        private final long illegal;
+        private final long unsolved;
+        private final long nanos;
+
+        private Report(long records, long illegal, long unsolved, long nanos) {
+            this.records = records;
+            this.illegal = illegal;
+            this.unsolved = unsolved;
+            this.nanos = nanos;
+        }
+
+        public long records() {
+            return records;
+        }
+
+        // Records with an illegal move
+        public long illegal() {
+            return illegal;
+        }
+
+        // Records whose moves were all legal but didn't finish the puzzle
+        public long unsolved() {
+            return unsolved;
+        }
+
+        public long valid() {
+            return records - illegal - unsolved;
+        }
+
+        public double seconds() {
+            return nanos / 1e9;
+        }
+
+        public double recordsPerSecond() {
+            return records / Math.max(seconds(), 1e-9);
+        }
+    }
+
+    private final int threads;
+    // Size of the file windows mapped by the reader (0 = GameRecordReader's default)
+    private final long windowBytes;
+
+    // Creates a verifier using the given number of worker threads
+    public GameRecordVerifier(int threads) {
+        this(threads, 0);
+    }
+
+    // Same with smaller file windows, so tests can make batches end at window boundaries
+    GameRecordVerifier(int threads, long windowBytes) {
+        this.threads = threads;
+        this.windowBytes = windowBytes;
+    }
+
+    // Creates a verifier using every available core
+    public GameRecordVerifier() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    // Verifies every record of the file. A record is a valid solution when all of its moves are
+    // legal and it ends with a single peg (in the center hole if requireCenter is set).
+    public Report verify(Path file, boolean requireCenter, FailureListener listener)
+            throws IOException, InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long begin = System.nanoTime();
+        try (GameRecordReader in = windowBytes > 0 ? new GameRecordReader(file, windowBytes) : new GameRecordReader(file)) {
+            RuleSet rules = in.getRules();
+            BoardShape shape = in.getShape();
+            long target = requireCenter ? 1L << shape.centerHole() : SolitaireSolver.ANY_SINGLE_PEG;
+            if (requireCenter && shape.centerHole() < 0) {
+                throw new IllegalArgumentException("Board has no center hole");
+            }
+
+            // A ring of batches: while the workers check some, the reader fills the others.
+            // Slots are reused in order, so the slot about to be refilled is always the oldest.
+            Batch[] ring = new Batch[threads * 2];
+            Future<?>[] pending = new Future<?>[ring.length];
+            for (int i = 0; i < ring.length; i++) ring[i] = new Batch(rules, target, in.moveBytes());
+
+            long[] totals = new long[3]; // records, illegal, unsolved
+            long record = 0;
+            int slot = 0;
+            while (true) {
+                if (pending[slot] != null) {
+                    collect(ring[slot], pending[slot], listener, totals);
+                    pending[slot] = null;
+                }
+                if (!ring[slot].fill(in, record)) break;
+                record += ring[slot].count;
+                pending[slot] = pool.submit(ring[slot]);
+                slot = (slot + 1) % ring.length;
+            }
+            // Drain what's still running, oldest first
+            for (int i = 0; i < ring.length; i++) {
+                int s = (slot + i) % ring.length;
+                if (pending[s] != null) collect(ring[s], pending[s], listener, totals);
+            }
+            return new Report(totals[0], totals[1], totals[2], System.nanoTime() - begin);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Waits for a batch and reports its failures
+    private static void collect(Batch batch, Future<?> done, FailureListener listener, long[] totals)
+            throws InterruptedException {
+        try {
+            done.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Verifier worker failed", e.getCause());
+        }
+        totals[0] += batch.count;
+        for (int i = 0; i < batch.count; i++) {
+            int result = batch.result[i];
+            if (result == OK) continue;
+            if (result == NOT_SOLVED) totals[2]++;
+            else totals[1]++;
+            if (listener != null) listener.onFailure(batch.firstRecord + i, result);
+        }
+    }
+
+    // A block of consecutive records: a byte range of one mapped window of the file
+    private static final class Batch implements Runnable {
+        private final RuleSet rules;
+        private final long target;
+        private final int moveBytes;
+
+        long firstRecord;
+        int count;
+        // The records start at window[from]
+        ByteBuffer window;
+        int from;
+        final int[] result = new int[BATCH_RECORDS];
+
+        Batch(RuleSet rules, long target, int moveBytes) {
+            this.rules = rules;
+            this.target = target;
+            this.moveBytes = moveBytes;
+        }
+
+        // Takes up to BATCH_RECORDS records, all from the same window; returns false if the
+        // file had none left
+        boolean fill(GameRecordReader in, long first) throws IOException {
+            firstRecord = first;
+            count = 0;
+            while (count < BATCH_RECORDS && !(count > 0 && in.nextNeedsRemap()) && in.next()) {
+                if (count == 0) {
+                    window = in.window();
+                    from = in.recordStart();
+                }
+                count++;
+            }
+            return count > 0;
+        }
+
+        @Override
+        public void run() {
+            BoardShape shape = rules.getShape();
+            int jumpCount = rules.jumpCount();
+            int at = from;
+            for (int r = 0; r < count; r++) {
+                long pegs = shape.startingPosition(window.get(at) & 0xFF);
+                int moves = window.get(at + 1) & 0xFF;
+                int movesAt = at + 2;
+                at = movesAt + moves * moveBytes;
+
+                int failed = OK;
+                for (int k = 0; k < moves; k++) {
+                    int jump = moveBytes == 1
+                            ? window.get(movesAt + k) & 0xFF
+                            : window.getShort(movesAt + 2 * k) & 0xFFFF;
+                    if (jump >= jumpCount || !rules.canJump(pegs, jump)) {
+                        failed = k;
+                        break;
+                    }
+                    pegs = rules.apply(pegs, jump);
+                }
+                if (failed == OK && !solved(pegs)) failed = NOT_SOLVED;
+                result[r] = failed;
+            }
+        }
+
+        private boolean solved(long pegs) {
+            if (target == SolitaireSolver.ANY_SINGLE_PEG) return Long.bitCount(pegs) == 1;
+            return pegs == target;
+        }
+    }
+
+    // Command-line entry point.
+    // Usage: java GameRecordVerifier <file> [threads] [center]
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length == 0) {
+            System.out.println("Usage: java GameRecordVerifier <file> [threads] [center]");
+            return;
+        }
+        Path file = Path.of(args[0]);
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        boolean center = args.length > 2 && args[2].equalsIgnoreCase("center");
+
+        // Only print the first few failures, big batches can have thousands
+        long[] printed = new long[1];
+        Report report = new GameRecordVerifier(threads).verify(file, center, (record, move) -> {
+            if (printed[0]++ < 20) {
+                System.out.println("Record " + record + ": "
+                        + (move == NOT_SOLVED ? "does not finish the puzzle" : "illegal move " + (move + 1)));
+            }
+        });
+
+        System.out.printf("%,d records: %,d valid, %,d with an illegal move, %,d not solved%n",
+                report.records(), report.valid(), report.illegal(), report.unsolved());
+        System.out.printf("%d threads, %.2f s: %,.0f records/sec%n",
+                threads, report.seconds(), report.recordsPerSecond());
+    }
+}
@@ -0,0 +1,79 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for GameRecordVerifier.
+ * Every broken record must be reported once, in file order, with the right move index.
+ */
+public class GameRecordVerifierTest {
+
+    /**
+     * Test an archive spanning several batches where every 1000th record has a broken move
+     * and every 1000th (shifted by 500) stops one move early, read through big and small
+     * file windows.
+     */
+    @Test
+    void brokenRecordsShouldBeReportedInOrder(@TempDir Path dir) throws IOException, InterruptedException {
+        BoardShape shape = BoardShape.english();
+        RuleSet rules = EnglishSolitaireGame.getRules();
+        long start = shape.startingPosition();
+        int[] solution = new SolitaireSolver(rules).solve(start, 1L << shape.centerHole());
+        assertNotNull(solution);
+
+        // Swapping two consecutive moves early on breaks the second one
+        int[] swapped = solution.clone();
+        swapped[1] = solution[2];
+        swapped[2] = solution[1];
+        int brokenAt = firstIllegal(rules, start, swapped);
+        assertTrue(brokenAt >= 0);
+
+        int records = 10_000;
+        Path file = dir.resolve("claims.pegr");
+        try (GameRecordWriter out = new GameRecordWriter(file, rules)) {
+            for (int r = 0; r < records; r++) {
+                if (r % 1000 == 0) out.append(shape.centerHole(), swapped, swapped.length);
+                else if (r % 1000 == 500) out.append(shape.centerHole(), solution, solution.length - 1);
+                else out.append(shape.centerHole(), solution, solution.length);
+            }
+        }
+
+        // Default windows, and small ones so many batches end early at a window boundary
+        for (GameRecordVerifier verifier : new GameRecordVerifier[] {
+                new GameRecordVerifier(3), new GameRecordVerifier(3, 4096) }) {
+            checkReport(verifier, file, records, brokenAt);
+        }
+    }
+
+    // Verifies the archive built above and checks totals and failures
+    private static void checkReport(GameRecordVerifier verifier, Path file, int records, int brokenAt)
+            throws IOException, InterruptedException {
+        List<long[]> failures = new ArrayList<>();
+        GameRecordVerifier.Report report = verifier.verify(file, true,
+                (record, move) -> failures.add(new long[] { record, move }));
+
+        assertEquals(records, report.records());
+        assertEquals(10, report.illegal());
+        assertEquals(10, report.unsolved());
+        assertEquals(records - 20, report.valid());
+        assertEquals(20, failures.size());
+        for (int i = 0; i < failures.size(); i++) {
+            long[] failure = failures.get(i);
+            assertEquals(i * 500L, failure[0]);
+            assertEquals(i % 2 == 0 ? brokenAt : GameRecordVerifier.NOT_SOLVED, failure[1]);
+        }
+    }
+
+    // Index of the first illegal jump, or -1 if they are all legal
+    private static int firstIllegal(RuleSet rules, long pegs, int[] jumps) {
+        for (int i = 0; i < jumps.length; i++) {
+            if (!rules.canJump(pegs, jumps[i])) return i;
+            pegs = rules.apply(pegs, jumps[i]);
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,106 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Writes played games to a compact binary archive, read back with GameRecordReader.
+//
+// File layout (big-endian):
+//   header: int magic "PEGR", byte version, byte bytes per move (1 or 2), then the rule set
+//           (diagonal flag and board mask, see RuleSetHeader)
+//   records, back to back: byte empty hole at the start, byte move count, then each move
+//           as its jump id in the rule set (1 byte if the rules have at most 256 jumps, else 2)
+//
+// Records go through one large buffer so the disk only sees big sequential writes.
+public final class GameRecordWriter implements AutoCloseable {
+    static final int MAGIC = 0x50454752; // "PEGR"
+    static final int VERSION = 1;
+    // Largest possible record: 2 header bytes + 63 moves of 2 bytes
+    static final int MAX_RECORD_BYTES = 2 + (BoardShape.MAX_HOLES - 1) * 2;
+
+    // 1 MB write buffer
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final RuleSet rules;
+    private final int moveBytes;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    // Scratch for append(int, PegBoard)
+    private final int[] jumps = new int[BoardShape.MAX_HOLES];
+    private long records;
+
+    public GameRecordWriter(Path file, RuleSet rules) throws IOException {
+        this.rules = rules;
+        this.moveBytes = rules.jumpCount() <= 256 ? 1 : 2;
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+
+        buffer.putInt(MAGIC);
+        buffer.put((byte) VERSION);
+        buffer.put((byte) moveBytes);
+        RuleSetHeader.write(buffer, rules);
+    }
+
+    // Appends one game: the hole that was empty at the start and the ids of the jumps played
+    public void append(int startHole, int[] jumps, int count) throws IOException {
+        if (startHole < 0 || startHole >= rules.getShape().getHoleCount()) {
+            throw new IllegalArgumentException("No hole " + startHole + " on this board");
+        }
+        if (count < 0 || count >= BoardShape.MAX_HOLES) {
+            throw new IllegalArgumentException("A game can't have " + count + " moves");
+        }
+        // Check every jump before writing anything, so a bad game leaves no partial record behind
+        for (int i = 0; i < count; i++) {
+            if (jumps[i] < 0 || jumps[i] >= rules.jumpCount()) {
+                throw new IllegalArgumentException("No jump " + jumps[i] + " in these rules");
+            }
+        }
+        if (buffer.remaining() < MAX_RECORD_BYTES) flush();
+
+        buffer.put((byte) startHole);
+        buffer.put((byte) count);
+        for (int i = 0; i < count; i++) {
+            int jump = jumps[i];
+            if (moveBytes == 1) buffer.put((byte) jump);
+            else buffer.putShort((short) jump);
+        }
+        records++;
+    }
+
+    // Appends a game played on a PegBoard (its history holds packed moves)
+    public void append(int startHole, PegBoard board) throws IOException {
+        if (!RuleSetHeader.sameRules(rules, board.getRules())) {
+            throw new IllegalArgumentException("The board doesn't use the rules of this archive");
+        }
+        int count = board.historySize();
+        for (int i = 0; i < count; i++) {
+            int move = board.historyMove(i);
+            int jump = rules.findJump(PackedMove.from(move), PackedMove.to(move));
+            if (jump < 0 || rules.jumpOver(jump) != PackedMove.over(move)) {
+                throw new IllegalArgumentException("Move " + i + " is not a jump in these rules");
+            }
+            jumps[i] = jump;
+        }
+        append(startHole, jumps, count);
+    }
+
+    // Returns how many games have been appended so far
+    public long count() {
+        return records;
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+}
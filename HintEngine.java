@@ -0,0 +1,172 @@
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Finds hints (a next move that still lets the position be finished with one peg) on a
+// background thread, so the thread asking for them (the JavaFX thread in SolitaireGUI) never
+// waits for a search.
+//
+// Every request gets a generation number. A newer request or cancel() bumps the generation,
+// which makes an older search stop at its next check and keeps its result from being delivered,
+// so a hint never shows up for a board that has changed since. Each search also has a time
+// budget. Results are handed to the listener through the delivery executor given to the
+// constructor (Platform::runLater in the GUI).
+//
+// All searches run on one daemon thread, slightly below normal priority, so they never hold up
+// the UI thread or keep the program alive. It keeps one SolitaireSolver per rule set, so
+// positions proven dead for one hint are remembered for the next. The solution behind a hint
+// is remembered too (position -> next jump, in a LongIntHashMap): a player who follows the
+// hints gets every later one on that line without another search.
+// Both are capped: once a rule set's solver or move table holds more than maxRemembered
+// positions it is dropped and starts over, so a long session doesn't grow without bound.
+public final class HintEngine implements AutoCloseable {
+    // The result of one hint request
+    public static final class Hint {
+        public enum Kind {
+            // jump() keeps the position solvable
+            MOVE,
+            // No sequence of jumps from this position ends with one peg (or there is nothing
+            // left to play)
+            NO_SOLUTION,
+            // The time budget ran out before the search finished
+            TIMED_OUT
+        }
+
+        private final Kind kind;
+        private final RuleSet rules;
+        private final long pegs;
+        private final int jump;
+        private final long nodes;
+
+        private Hint(Kind kind, RuleSet rules, long pegs, int jump, long nodes) {
+            this.kind = kind;
+            this.rules = rules;
+            this.pegs = pegs;
+            this.jump = jump;
+            this.nodes = nodes;
+        }
+
+        public Kind kind() {
+            return kind;
+        }
+
+        // The rules and position the hint was computed for
+        public RuleSet rules() {
+            return rules;
+        }
+
+        public long pegs() {
+            return pegs;
+        }
+
+        // Jump id of the suggested move (only for MOVE, -1 otherwise)
+        public int jump() {
+            return jump;
+        }
+
+        // Positions the search visited
+        public long nodes() {
+            return nodes;
+        }
+    }
+
+    // Default cap on the positions remembered per rule set (dead positions, and known moves):
+    // 4M dead positions take about 64 MB
+    private static final int DEFAULT_MAX_REMEMBERED = 1 << 22;
+
+    private final ExecutorService worker;
+    private final Executor delivery;
+    private final SolvabilityOracle oracle;
+    private final int maxRemembered;
+    private final AtomicLong generation = new AtomicLong();
+    // Only touched by the worker thread
+    private final Map<RuleSet, SolitaireSolver> solvers = new IdentityHashMap<>();
+    private final Map<RuleSet, LongIntHashMap> knownMoves = new IdentityHashMap<>();
+
+    // delivery runs the listener calls (e.g. Platform::runLater); oracle may be null
+    public HintEngine(Executor delivery, SolvabilityOracle oracle) {
+        this(delivery, oracle, DEFAULT_MAX_REMEMBERED);
+    }
+
+    // maxRemembered = how many positions each rule set's solver and move table may keep
+    // between requests
+    HintEngine(Executor delivery, SolvabilityOracle oracle, int maxRemembered) {
+        this.delivery = delivery;
+        this.oracle = oracle;
+        this.maxRemembered = maxRemembered;
+        this.worker = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "hint-engine");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+    }
+
+    // Starts looking for a move from pegs that can still end with one peg, giving up after
+    // budgetMillis. Replaces any earlier request; the listener is called (through the delivery
+    // executor) only if no newer request or cancel() came in meanwhile.
+    public void request(RuleSet rules, long pegs, long budgetMillis, Consumer<Hint> listener) {
+        long id = generation.incrementAndGet();
+        long deadline = System.nanoTime() + budgetMillis * 1_000_000;
+        worker.execute(() -> {
+            if (generation.get() != id) return;
+            Hint hint = compute(rules, pegs, id, deadline);
+            forgetIfTooBig(rules);
+            delivery.execute(() -> {
+                if (generation.get() == id) listener.accept(hint);
+            });
+        });
+    }
+
+    // Drops the current request (e.g. because the board changed); its search stops soon after
+    public void cancel() {
+        generation.incrementAndGet();
+    }
+
+    // Stops the background thread; the engine can't be used afterwards
+    @Override
+    public void close() {
+        cancel();
+        worker.shutdownNow();
+    }
+
+    // Runs on the worker thread
+    private Hint compute(RuleSet rules, long pegs, long id, long deadline) {
+        LongIntHashMap known = knownMoves.computeIfAbsent(rules, r -> new LongIntHashMap());
+        int knownJump = known.get(pegs, -1);
+        if (knownJump >= 0) return new Hint(Hint.Kind.MOVE, rules, pegs, knownJump, 0);
+
+        SolitaireSolver solver = solvers.computeIfAbsent(rules, r -> {
+            SolitaireSolver s = new SolitaireSolver(r);
+            s.setOracle(oracle);
+            return s;
+        });
+        solver.setStopCheck(() -> generation.get() != id || System.nanoTime() > deadline);
+
+        int[] jumps = solver.solve(pegs, SolitaireSolver.ANY_SINGLE_PEG);
+        if (jumps != null && jumps.length > 0) {
+            // Every position along the solution can still be finished the same way
+            long p = pegs;
+            for (int jump : jumps) {
+                known.put(p, jump);
+                p = rules.apply(p, jump);
+            }
+            return new Hint(Hint.Kind.MOVE, rules, pegs, jumps[0], solver.getNodeCount());
+        }
+        Hint.Kind kind = solver.wasStopped() ? Hint.Kind.TIMED_OUT : Hint.Kind.NO_SOLUTION;
+        return new Hint(kind, rules, pegs, -1, solver.getNodeCount());
+    }
+
+    // Drops a rule set's solver or move table once it remembers too many positions (clearing
+    // them would keep their grown tables); they start over empty on the next request
+    private void forgetIfTooBig(RuleSet rules) {
+        SolitaireSolver solver = solvers.get(rules);
+        if (solver != null && solver.getDeadPositionCount() > maxRemembered) solvers.remove(rules);
+        LongIntHashMap known = knownMoves.get(rules);
+        if (known != null && known.size() > maxRemembered) knownMoves.remove(rules);
+    }
+}
@@ -0,0 +1,130 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for HintEngine.
+ * Hints are computed off the calling thread, must keep the game solvable, and must
+ * never be delivered once a newer request has replaced them.
+ */
+public class HintEngineTest {
+
+    /**
+     * Test that the hint for the English start is a legal jump after which the
+     * position can still be finished with one peg.
+     */
+    @Test
+    void hintShouldKeepThePositionSolvable() throws Exception {
+        RuleSet rules = EnglishSolitaireGame.getRules();
+        long start = rules.getShape().startingPosition();
+        CompletableFuture<HintEngine.Hint> result = new CompletableFuture<>();
+
+        try (HintEngine engine = new HintEngine(Runnable::run, null)) {
+            engine.request(rules, start, 10_000, result::complete);
+            HintEngine.Hint hint = result.get(30, TimeUnit.SECONDS);
+
+            assertEquals(HintEngine.Hint.Kind.MOVE, hint.kind());
+            assertEquals(start, hint.pegs());
+            assertTrue(rules.canJump(start, hint.jump()));
+            long after = rules.apply(start, hint.jump());
+            assertNotNull(new SolitaireSolver(rules).solve(after, SolitaireSolver.ANY_SINGLE_PEG));
+        }
+    }
+
+    /**
+     * Test that a request replaced by a newer one is never delivered, even if its
+     * search finished before the listener got to run.
+     */
+    @Test
+    void replacedRequestShouldNotBeDelivered() throws Exception {
+        RuleSet rules = EnglishSolitaireGame.getRules();
+        long start = rules.getShape().startingPosition();
+        int[] jumps = new int[rules.jumpCount()];
+        rules.legalJumps(start, jumps);
+        long afterOneMove = rules.apply(start, jumps[0]);
+
+        // Deliveries wait in a queue until the test runs them, like Platform.runLater would
+        ConcurrentLinkedQueue<Runnable> pending = new ConcurrentLinkedQueue<>();
+        List<HintEngine.Hint> delivered = new ArrayList<>();
+        try (HintEngine engine = new HintEngine(pending::add, null)) {
+            engine.request(rules, start, 10_000, delivered::add);
+            engine.request(rules, afterOneMove, 10_000, delivered::add);
+
+            long giveUp = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (delivered.isEmpty() && System.nanoTime() < giveUp) {
+                Runnable r = pending.poll();
+                if (r != null) r.run();
+                else Thread.sleep(1);
+            }
+        }
+        assertEquals(1, delivered.size());
+        assertEquals(afterOneMove, delivered.get(0).pegs());
+    }
+
+    /**
+     * Test that a search that runs past its time budget reports TIMED_OUT.
+     */
+    @Test
+    void searchShouldStopWhenTheBudgetRunsOut() throws Exception {
+        RuleSet rules = EnglishSolitaireGame.getRules();
+        CompletableFuture<HintEngine.Hint> result = new CompletableFuture<>();
+
+        try (HintEngine engine = new HintEngine(Runnable::run, null)) {
+            engine.request(rules, rules.getShape().startingPosition(), 0, result::complete);
+            HintEngine.Hint hint = result.get(30, TimeUnit.SECONDS);
+
+            assertEquals(HintEngine.Hint.Kind.TIMED_OUT, hint.kind());
+            assertEquals(-1, hint.jump());
+        }
+    }
+
+    /**
+     * Test that following a hint gives the next hint from the remembered solution,
+     * without another search.
+     */
+    @Test
+    void hintsAlongTheSolutionShouldNotSearchAgain() throws Exception {
+        RuleSet rules = EnglishSolitaireGame.getRules();
+        long start = rules.getShape().startingPosition();
+
+        try (HintEngine engine = new HintEngine(Runnable::run, null)) {
+            CompletableFuture<HintEngine.Hint> first = new CompletableFuture<>();
+            engine.request(rules, start, 10_000, first::complete);
+            HintEngine.Hint hint = first.get(30, TimeUnit.SECONDS);
+            assertTrue(hint.nodes() > 0);
+
+            CompletableFuture<HintEngine.Hint> second = new CompletableFuture<>();
+            long after = rules.apply(start, hint.jump());
+            engine.request(rules, after, 10_000, second::complete);
+            HintEngine.Hint next = second.get(30, TimeUnit.SECONDS);
+
+            assertEquals(HintEngine.Hint.Kind.MOVE, next.kind());
+            assertEquals(0, next.nodes());
+            assertTrue(rules.canJump(after, next.jump()));
+        }
+    }
+
+    /**
+     * Test that an engine that may remember only a few positions forgets them after each
+     * request, so asking again for the same position searches again.
+     */
+    @Test
+    void rememberedPositionsShouldBeCapped() throws Exception {
+        RuleSet rules = EnglishSolitaireGame.getRules();
+        long start = rules.getShape().startingPosition();
+
+        try (HintEngine engine = new HintEngine(Runnable::run, null, 4)) {
+            for (int i = 0; i < 2; i++) {
+                CompletableFuture<HintEngine.Hint> result = new CompletableFuture<>();
+                engine.request(rules, start, 10_000, result::complete);
+                HintEngine.Hint hint = result.get(30, TimeUnit.SECONDS);
+                assertEquals(HintEngine.Hint.Kind.MOVE, hint.kind());
+                assertTrue(hint.nodes() > 0);
+            }
+        }
+    }
+}
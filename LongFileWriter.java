@@ -0,0 +1,78 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Appends longs to a file through one large direct buffer, so the disk sees a few big
+// sequential writes instead of one call per value. Read the file back with MappedLongReader.
+// Direct buffers are only freed by the garbage collector, so code that writes many files in a
+// row should allocate one with newBuffer() and hand it to each writer in turn.
+public final class LongFileWriter implements AutoCloseable {
+    // 8 MB write buffer
+    private static final int BUFFER_BYTES = 1 << 23;
+
+    private final FileChannel channel;
+    private final ByteBuffer bytes;
+    private final LongBuffer longs;
+    private long written;
+
+    public LongFileWriter(Path file) throws IOException {
+        this(file, newBuffer());
+    }
+
+    // Writes through the given buffer, which must not be used by another open writer
+    public LongFileWriter(Path file, ByteBuffer buffer) throws IOException {
+        buffer.clear();
+        bytes = buffer;
+        longs = buffer.asLongBuffer();
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    // Returns a new write buffer of the default size
+    public static ByteBuffer newBuffer() {
+        return ByteBuffer.allocateDirect(BUFFER_BYTES);
+    }
+
+    // Appends one value
+    public void write(long value) throws IOException {
+        if (!longs.hasRemaining()) flush();
+        longs.put(value);
+        written++;
+    }
+
+    // Appends values[0..n)
+    public void write(long[] values, int n) throws IOException {
+        int offset = 0;
+        while (offset < n) {
+            if (!longs.hasRemaining()) flush();
+            int len = Math.min(n - offset, longs.remaining());
+            longs.put(values, offset, len);
+            offset += len;
+        }
+        written += n;
+    }
+
+    // Returns how many values have been written so far
+    public long count() {
+        return written;
+    }
+
+    private void flush() throws IOException {
+        bytes.limit(longs.position() * Long.BYTES);
+        bytes.position(0);
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+        longs.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+}
@@ -0,0 +1,162 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+// A set of longs without boxing, for packed positions (see BoardShape).
+// Open addressing with linear probing in one flat table of longs: 8 bytes per slot, so about
+// 11-21 bytes per entry depending on how full the table is, instead of the ~60 of a HashSet<Long>.
+// Slot value 0 means "empty", so the key 0 is tracked by a separate flag.
+// The table can live off-heap in a direct buffer, which keeps big tables out of the heap the
+// garbage collector has to scan. There is no remove: the solvers only ever add positions.
+public final class LongHashSet {
+    // Grow when the table is more than 3/4 full
+    private static final int MAX_LOAD_PERCENT = 75;
+    // Largest table in a long[]: 2^30 slots = 8 GB of keys (the largest power-of-two array)
+    static final int MAX_CAPACITY = 1 << 30;
+    // Largest off-heap table: 2^27 slots = 1 GB of keys (a direct buffer is limited to 2 GB)
+    static final int MAX_OFF_HEAP_CAPACITY = 1 << 27;
+
+    private final boolean offHeap;
+    private long[] keys;
+    private LongBuffer directKeys;
+    private int mask;
+    private int size;
+    private int growAt;
+    private boolean hasZero;
+
+    public LongHashSet() {
+        this(16, false);
+    }
+
+    // expected = how many keys will be added (avoids resizing); offHeap = keep the table in a
+    // direct buffer instead of a long[]
+    public LongHashSet(int expected, boolean offHeap) {
+        this.offHeap = offHeap;
+        allocate(capacityFor(expected, maxCapacity(offHeap)));
+    }
+
+    // Adds the key; returns true if it wasn't in the set yet
+    public boolean add(long key) {
+        if (key == 0) {
+            if (hasZero) return false;
+            hasZero = true;
+            size++;
+            return true;
+        }
+        int i = slot(key);
+        while (true) {
+            long k = get(i);
+            if (k == 0) break;
+            if (k == key) return false;
+            i = (i + 1) & mask;
+        }
+        // Grow before inserting, so a full table throws without having taken the key
+        if (size + 1 > growAt) {
+            grow();
+            i = slot(key);
+            while (get(i) != 0) i = (i + 1) & mask;
+        }
+        set(i, key);
+        size++;
+        return true;
+    }
+
+    public boolean contains(long key) {
+        if (key == 0) return hasZero;
+        int i = slot(key);
+        while (true) {
+            long k = get(i);
+            if (k == key) return true;
+            if (k == 0) return false;
+            i = (i + 1) & mask;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Removes every key (keeps the current table size)
+    public void clear() {
+        if (offHeap) {
+            for (int i = 0; i <= mask; i++) directKeys.put(i, 0);
+        } else {
+            Arrays.fill(keys, 0);
+        }
+        size = 0;
+        hasZero = false;
+    }
+
+    // Home slot of a key. Positions have lots of structure (neighbouring bits), so the bits are
+    // mixed first (the 64-bit finalizer from MurmurHash3).
+    static int mix(long key) {
+        return (int) mix64(key);
+    }
+
+    // The whole 64-bit finalizer. It's a bijection, so different keys never mix to the same value.
+    static long mix64(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    // Largest table for on-heap or off-heap storage
+    static int maxCapacity(boolean offHeap) {
+        return offHeap ? MAX_OFF_HEAP_CAPACITY : MAX_CAPACITY;
+    }
+
+    // Smallest power of two that holds expected keys below the load limit
+    static int capacityFor(int expected, int maxCapacity) {
+        long needed = Math.max(16, (long) expected * 100 / MAX_LOAD_PERCENT + 1);
+        if (needed > maxCapacity) throw new IllegalArgumentException("Too many keys: " + expected);
+        return Integer.highestOneBit((int) needed - 1) << 1;
+    }
+
+    private int slot(long key) {
+        return mix(key) & mask;
+    }
+
+    private long get(int i) {
+        return offHeap ? directKeys.get(i) : keys[i];
+    }
+
+    private void set(int i, long key) {
+        if (offHeap) directKeys.put(i, key);
+        else keys[i] = key;
+    }
+
+    private void allocate(int capacity) {
+        if (offHeap) {
+            // Native byte order, so reads and writes don't byte-swap
+            directKeys = ByteBuffer.allocateDirect(capacity * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+        } else {
+            keys = new long[capacity];
+        }
+        mask = capacity - 1;
+        growAt = (int) ((long) capacity * MAX_LOAD_PERCENT / 100);
+    }
+
+    // Doubles the table and re-inserts every key
+    private void grow() {
+        int capacity = mask + 1;
+        if (capacity >= maxCapacity(offHeap)) throw new IllegalStateException("LongHashSet is full");
+        long[] oldKeys = keys;
+        LongBuffer oldDirect = directKeys;
+        allocate(capacity * 2);
+        for (int i = 0; i < capacity; i++) {
+            long key = oldDirect != null ? oldDirect.get(i) : oldKeys[i];
+            if (key == 0) continue;
+            int j = slot(key);
+            while (get(j) != 0) j = (j + 1) & mask;
+            set(j, key);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for LongHashSet and LongIntHashMap.
+ * Both must behave like the java.util collections they replace, on and off the heap.
+ */
+public class LongHashSetTest {
+
+    /**
+     * Test random adds (including the key 0 and repeats) against a HashSet, growing from
+     * the smallest table, with the table on the heap and off it.
+     */
+    @Test
+    void setShouldMatchHashSet() {
+        for (boolean offHeap : new boolean[] { false, true }) {
+            SplittableRandom random = new SplittableRandom(3);
+            LongHashSet set = new LongHashSet(1, offHeap);
+            Set<Long> expected = new HashSet<>();
+
+            for (int i = 0; i < 200_000; i++) {
+                // Few distinct values so that many adds are repeats
+                long key = random.nextLong(50_000) << 20;
+                assertEquals(expected.add(key), set.add(key));
+            }
+            assertEquals(expected.size(), set.size());
+            assertTrue(set.contains(0));
+            for (int i = 0; i < 50_000; i++) {
+                long key = random.nextLong(100_000) << 20;
+                assertEquals(expected.contains(key), set.contains(key));
+            }
+
+            set.clear();
+            assertTrue(set.isEmpty());
+            assertFalse(set.contains(0));
+            assertFalse(set.contains(expected.iterator().next()));
+        }
+    }
+
+    /**
+     * Test random puts and lookups against a HashMap, on the heap and off it.
+     */
+    @Test
+    void mapShouldMatchHashMap() {
+        for (boolean offHeap : new boolean[] { false, true }) {
+            SplittableRandom random = new SplittableRandom(4);
+            LongIntHashMap map = new LongIntHashMap(1, offHeap);
+            Map<Long, Integer> expected = new HashMap<>();
+
+            for (int i = 0; i < 200_000; i++) {
+                long key = random.nextLong(50_000) * 0x9E3779B97F4A7C15L;
+                int value = random.nextInt();
+                if (random.nextBoolean()) {
+                    assertEquals(expected.putIfAbsent(key, value) == null, map.putIfAbsent(key, value));
+                } else {
+                    expected.put(key, value);
+                    map.put(key, value);
+                }
+            }
+            assertEquals(expected.size(), map.size());
+            for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+                assertEquals(entry.getValue().intValue(), map.get(entry.getKey(), -1));
+            }
+            assertEquals(-1, map.get(12345, -1));
+            assertFalse(map.containsKey(12345));
+        }
+    }
+
+    /**
+     * Test the size limits: only off-heap tables stop at 2^27 slots (the direct buffer limit),
+     * on-heap ones can be sized for far more keys.
+     */
+    @Test
+    void onlyOffHeapTablesShouldBeLimitedByTheBufferSize() {
+        int keys = 200_000_000;
+        assertEquals(1 << 28, LongHashSet.capacityFor(keys, LongHashSet.maxCapacity(false)));
+        assertThrows(IllegalArgumentException.class,
+                () -> LongHashSet.capacityFor(keys, LongHashSet.maxCapacity(true)));
+        assertThrows(IllegalArgumentException.class,
+                () -> LongHashSet.capacityFor(Integer.MAX_VALUE, LongHashSet.maxCapacity(false)));
+    }
+}
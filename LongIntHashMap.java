@@ -0,0 +1,163 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+// A long -> int map without boxing, e.g. position -> depth, move or count.
+// Same layout as LongHashSet (open addressing, linear probing, key 0 kept aside) with the values
+// in a parallel int table: 12 bytes per slot instead of the ~80 bytes per entry of a
+// HashMap<Long, Integer>. Both tables can live off-heap in direct buffers.
+public final class LongIntHashMap {
+    private static final int MAX_LOAD_PERCENT = 75;
+
+    private final boolean offHeap;
+    private long[] keys;
+    private int[] values;
+    private LongBuffer directKeys;
+    private IntBuffer directValues;
+    private int mask;
+    private int size;
+    private int growAt;
+    private boolean hasZero;
+    private int zeroValue;
+
+    public LongIntHashMap() {
+        this(16, false);
+    }
+
+    // expected = how many keys will be added (avoids resizing); offHeap = keep the tables in
+    // direct buffers instead of arrays
+    public LongIntHashMap(int expected, boolean offHeap) {
+        this.offHeap = offHeap;
+        allocate(LongHashSet.capacityFor(expected, LongHashSet.maxCapacity(offHeap)));
+    }
+
+    // Sets the value for a key
+    public void put(long key, int value) {
+        if (key == 0) {
+            if (!hasZero) size++;
+            hasZero = true;
+            zeroValue = value;
+            return;
+        }
+        int i = LongHashSet.mix(key) & mask;
+        while (true) {
+            long k = getKey(i);
+            if (k == key) {
+                setValue(i, value);
+                return;
+            }
+            if (k == 0) break;
+            i = (i + 1) & mask;
+        }
+        // Grow before inserting, so a full table throws without having taken the entry
+        if (size + 1 > growAt) {
+            grow();
+            i = LongHashSet.mix(key) & mask;
+            while (getKey(i) != 0) i = (i + 1) & mask;
+        }
+        setKey(i, key);
+        setValue(i, value);
+        size++;
+    }
+
+    // Sets the value only if the key isn't in the map yet; returns true if it was added
+    public boolean putIfAbsent(long key, int value) {
+        if (containsKey(key)) return false;
+        put(key, value);
+        return true;
+    }
+
+    // Returns the value of a key, or missing if the key isn't in the map
+    public int get(long key, int missing) {
+        if (key == 0) return hasZero ? zeroValue : missing;
+        int i = LongHashSet.mix(key) & mask;
+        while (true) {
+            long k = getKey(i);
+            if (k == key) return getValue(i);
+            if (k == 0) return missing;
+            i = (i + 1) & mask;
+        }
+    }
+
+    public boolean containsKey(long key) {
+        if (key == 0) return hasZero;
+        int i = LongHashSet.mix(key) & mask;
+        while (true) {
+            long k = getKey(i);
+            if (k == key) return true;
+            if (k == 0) return false;
+            i = (i + 1) & mask;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Removes every entry (keeps the current table size)
+    public void clear() {
+        if (offHeap) {
+            for (int i = 0; i <= mask; i++) directKeys.put(i, 0);
+        } else {
+            Arrays.fill(keys, 0);
+        }
+        size = 0;
+        hasZero = false;
+    }
+
+    private long getKey(int i) {
+        return offHeap ? directKeys.get(i) : keys[i];
+    }
+
+    private void setKey(int i, long key) {
+        if (offHeap) directKeys.put(i, key);
+        else keys[i] = key;
+    }
+
+    private int getValue(int i) {
+        return offHeap ? directValues.get(i) : values[i];
+    }
+
+    private void setValue(int i, int value) {
+        if (offHeap) directValues.put(i, value);
+        else values[i] = value;
+    }
+
+    private void allocate(int capacity) {
+        if (offHeap) {
+            // Native byte order, so reads and writes don't byte-swap
+            directKeys = ByteBuffer.allocateDirect(capacity * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+            directValues = ByteBuffer.allocateDirect(capacity * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+        } else {
+            keys = new long[capacity];
+            values = new int[capacity];
+        }
+        mask = capacity - 1;
+        growAt = (int) ((long) capacity * MAX_LOAD_PERCENT / 100);
+    }
+
+    // Doubles the tables and re-inserts every entry
+    private void grow() {
+        int capacity = mask + 1;
+        if (capacity >= LongHashSet.maxCapacity(offHeap)) throw new IllegalStateException("LongIntHashMap is full");
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        LongBuffer oldDirectKeys = directKeys;
+        IntBuffer oldDirectValues = directValues;
+        allocate(capacity * 2);
+        for (int i = 0; i < capacity; i++) {
+            long key = offHeap ? oldDirectKeys.get(i) : oldKeys[i];
+            if (key == 0) continue;
+            int j = LongHashSet.mix(key) & mask;
+            while (getKey(j) != 0) j = (j + 1) & mask;
+            setKey(j, key);
+            setValue(j, offHeap ? oldDirectValues.get(i) : oldValues[i]);
+        }
+    }
+}
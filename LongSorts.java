@@ -0,0 +1,97 @@
+import java.util.Arrays;
+
+// Sorting helpers for arrays of packed positions (plain long[], no boxing).
+// Everything here sorts in unsigned order, which for boards under 64 holes is the same as
+// normal numeric order.
+public final class LongSorts {
+    // Radix digit width: 11 bits = 2048 buckets, so a 33-hole position needs 3 passes
+    private static final int DIGIT_BITS = 11;
+    private static final int BUCKETS = 1 << DIGIT_BITS;
+
+    private LongSorts() {
+    }
+
+    // Sorts a[0..n) using LSD radix sort. scratch must have room for at least n values.
+    // Passes over digits that are the same in every key are skipped.
+    public static void radixSort(long[] a, int n, long[] scratch) {
+        if (n < 2) return;
+
+        // Only sort the bits that are actually used
+        long used = 0;
+        for (int i = 0; i < n; i++) used |= a[i];
+        int bits = 64 - Long.numberOfLeadingZeros(used);
+
+        long[] src = a;
+        long[] dst = scratch;
+        int[] counts = new int[BUCKETS];
+
+        for (int shift = 0; shift < bits; shift += DIGIT_BITS) {
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < n; i++) {
+                counts[(int) (src[i] >>> shift) & (BUCKETS - 1)]++;
+            }
+            // Skip the pass if every key falls in the same bucket
+            if (counts[(int) (src[0] >>> shift) & (BUCKETS - 1)] == n) continue;
+
+            int sum = 0;
+            for (int b = 0; b < BUCKETS; b++) {
+                int c = counts[b];
+                counts[b] = sum;
+                sum += c;
+            }
+            for (int i = 0; i < n; i++) {
+                long v = src[i];
+                dst[counts[(int) (v >>> shift) & (BUCKETS - 1)]++] = v;
+            }
+
+            long[] t = src;
+            src = dst;
+            dst = t;
+        }
+
+        if (src != a) System.arraycopy(src, 0, a, 0, n);
+    }
+
+    // Removes duplicates from a sorted a[0..n) in place and returns the new length
+    public static int unique(long[] a, int n) {
+        if (n == 0) return 0;
+        int out = 1;
+        for (int i = 1; i < n; i++) {
+            if (a[i] != a[out - 1]) a[out++] = a[i];
+        }
+        return out;
+    }
+
+    // Merges two sorted, duplicate-free ranges into out and returns the merged length.
+    // Values that appear in both inputs are written once. out needs room for na + nb values.
+    public static int mergeUnique(long[] a, int na, long[] b, int nb, long[] out) {
+        int i = 0, j = 0, k = 0;
+        while (i < na && j < nb) {
+            int cmp = Long.compareUnsigned(a[i], b[j]);
+            if (cmp < 0) {
+                out[k++] = a[i++];
+            } else if (cmp > 0) {
+                out[k++] = b[j++];
+            } else {
+                out[k++] = a[i++];
+                j++;
+            }
+        }
+        while (i < na) out[k++] = a[i++];
+        while (j < nb) out[k++] = b[j++];
+        return k;
+    }
+
+    // Binary search in a sorted a[0..n): returns true if key is present
+    public static boolean contains(long[] a, int n, long key) {
+        int lo = 0, hi = n - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = Long.compareUnsigned(a[mid], key);
+            if (cmp < 0) lo = mid + 1;
+            else if (cmp > 0) hi = mid - 1;
+            else return true;
+        }
+        return false;
+    }
+}
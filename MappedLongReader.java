@@ -0,0 +1,101 @@
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Streams the longs of a file (as written by LongFileWriter) through memory-mapped windows.
+// A single mapping is limited to 2 GB, so big files are mapped one window at a time;
+// reading a value is then a plain memory access with no read() calls or copying.
+// Each window is unmapped as soon as the reader moves past it or is closed. A mapping otherwise
+// lives until the garbage collector frees it, and on Linux a deleted file keeps its disk blocks
+// for as long as any part of it is mapped. Unmapping goes through Unsafe.invokeCleaner; if that
+// is not available the windows are left to the collector, so deleted files may hold their
+// space a little longer.
+public final class MappedLongReader implements AutoCloseable {
+    // Size of one mapped window (a multiple of 8 so values never straddle two windows)
+    private static final long WINDOW_BYTES = 1L << 27;
+
+    // Unsafe.invokeCleaner and its receiver, or null if they can't be reached
+    private static final Method INVOKE_CLEANER;
+    private static final Object UNSAFE;
+
+    static {
+        Method invokeCleaner = null;
+        Object unsafe = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Not available on this JVM: windows are freed by the collector
+            invokeCleaner = null;
+        }
+        INVOKE_CLEANER = invokeCleaner;
+        UNSAFE = unsafe;
+    }
+
+    private final FileChannel channel;
+    private final long count;
+    private long position;
+
+    private MappedByteBuffer mapped;
+    private LongBuffer window;
+    private long windowEnd;
+
+    public MappedLongReader(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        count = channel.size() / Long.BYTES;
+    }
+
+    // Returns how many longs the file holds
+    public long size() {
+        return count;
+    }
+
+    // Checks if there are values left to read
+    public boolean hasNext() {
+        return position < count;
+    }
+
+    // Returns the next value (the caller must check hasNext first)
+    public long next() throws IOException {
+        if (position == windowEnd) mapNextWindow();
+        position++;
+        return window.get();
+    }
+
+    private void mapNextWindow() throws IOException {
+        long startByte = position * Long.BYTES;
+        long length = Math.min(WINDOW_BYTES, count * Long.BYTES - startByte);
+        unmap();
+        mapped = channel.map(FileChannel.MapMode.READ_ONLY, startByte, length);
+        window = mapped.asLongBuffer();
+        windowEnd = position + length / Long.BYTES;
+    }
+
+    // Releases the current window. Only this reader ever sees it, so nothing can touch it afterwards.
+    private void unmap() {
+        MappedByteBuffer old = mapped;
+        mapped = null;
+        window = null;
+        if (old == null || INVOKE_CLEANER == null) return;
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, old);
+        } catch (ReflectiveOperationException e) {
+            // Leave it to the garbage collector
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        unmap();
+        channel.close();
+    }
+}
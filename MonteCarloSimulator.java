@@ -0,0 +1,119 @@
+import java.util.SplittableRandom;
+
+// Headless self-play: plays lots of games with a move-picking policy and collects a
+// histogram of how many pegs were left at the end. Runs without JavaFX.
+// Each thread gets its own random generator (split from one seed, so runs are repeatable)
+// and its own histogram, which are only added together after the threads finish; the
+// threads never touch a shared counter while playing.
+public class MonteCarloSimulator {
+    // Picks the move to play from the legal jumps of a position
+    public interface Policy {
+        int choose(RuleSet rules, long pegs, int[] jumps, int count, SplittableRandom random);
+    }
+
+    // Uniformly random legal move
+    public static final Policy RANDOM = (rules, pegs, jumps, count, random) -> jumps[random.nextInt(count)];
+
+    // Prefers moves that land closest to the center, random among equally good ones
+    public static final Policy TOWARD_CENTER = (rules, pegs, jumps, count, random) -> {
+        BoardShape shape = rules.getShape();
+        int mid = shape.getSize() / 2;
+        int best = -1;
+        int bestDistance = Integer.MAX_VALUE;
+        int ties = 0;
+        for (int i = 0; i < count; i++) {
+            int to = rules.jumpTo(jumps[i]);
+            int distance = Math.abs(shape.holeRow(to) - mid) + Math.abs(shape.holeCol(to) - mid);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = jumps[i];
+                ties = 1;
+            } else if (distance == bestDistance && random.nextInt(++ties) == 0) {
+                best = jumps[i];
+            }
+        }
+        return best;
+    };
+
+    private final RuleSet rules;
+    private final Policy policy;
+    private long elapsedNanos;
+
+    public MonteCarloSimulator(RuleSet rules, Policy policy) {
+        this.rules = rules;
+        this.policy = policy;
+    }
+
+    // Plays "games" games from start spread over "threads" threads.
+    // Returns histogram[k] = number of games that ended with k pegs.
+    public long[] run(long start, long games, int threads, long seed) throws InterruptedException {
+        if (games <= 0) throw new IllegalArgumentException("Need at least one game: " + games);
+        if (threads <= 0) throw new IllegalArgumentException("Need at least one thread: " + threads);
+        long[][] histograms = new long[threads][BoardShape.MAX_HOLES + 1];
+        Thread[] workers = new Thread[threads];
+        SplittableRandom root = new SplittableRandom(seed);
+
+        long begin = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            // Spread the games evenly, the first threads take the remainder
+            long share = games / threads + (t < games % threads ? 1 : 0);
+            long[] histogram = histograms[t];
+            SplittableRandom random = root.split();
+            workers[t] = new Thread(() -> play(start, share, random, histogram), "montecarlo-" + t);
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        elapsedNanos = System.nanoTime() - begin;
+
+        long[] total = new long[BoardShape.MAX_HOLES + 1];
+        for (long[] histogram : histograms) {
+            for (int k = 0; k < total.length; k++) total[k] += histogram[k];
+        }
+        return total;
+    }
+
+    // Returns the wall-clock time of the last run in seconds
+    public double getElapsedSeconds() {
+        return elapsedNanos / 1e9;
+    }
+
+    // One thread's share of the games; only touches its own random and histogram
+    private void play(long start, long games, SplittableRandom random, long[] histogram) {
+        int[] jumps = new int[rules.jumpCount()];
+        for (long g = 0; g < games; g++) {
+            long pegs = start;
+            int count;
+            while ((count = rules.legalJumps(pegs, jumps)) > 0) {
+                pegs = rules.apply(pegs, policy.choose(rules, pegs, jumps, count, random));
+            }
+            histogram[Long.bitCount(pegs)]++;
+        }
+    }
+
+    // Command-line entry point.
+    // Usage: java MonteCarloSimulator [english|diamond] [games] [threads] [random|center] [diagonal] [seed]
+    public static void main(String[] args) throws InterruptedException {
+        BoardShape shape = args.length > 0 && args[0].equalsIgnoreCase("diamond")
+                ? BoardShape.diamond(9) : BoardShape.english();
+        long games = args.length > 1 ? Long.parseLong(args[1]) : 1_000_000;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        Policy policy = args.length > 3 && args[3].equalsIgnoreCase("center") ? TOWARD_CENTER : RANDOM;
+        boolean diagonal = args.length > 4 && args[4].equalsIgnoreCase("diagonal");
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : System.nanoTime();
+
+        RuleSet rules = diagonal ? RuleSet.withDiagonals(shape) : RuleSet.orthogonal(shape);
+        MonteCarloSimulator simulator = new MonteCarloSimulator(rules, policy);
+        long[] histogram = simulator.run(shape.startingPosition(), games, threads, seed);
+
+        System.out.println("Pegs left  Games");
+        for (int k = 0; k < histogram.length; k++) {
+            if (histogram[k] > 0) {
+                System.out.printf("%9d  %,d (%.3f%%)%n", k, histogram[k], 100.0 * histogram[k] / games);
+            }
+        }
+        System.out.printf("%,d games on %d threads in %.2f s: %,.0f games/sec%n",
+                games, threads, simulator.getElapsedSeconds(), games / simulator.getElapsedSeconds());
+    }
+}
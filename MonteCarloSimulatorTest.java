@@ -0,0 +1,42 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for MonteCarloSimulator.
+ * Checks that every game is counted once and that a fixed seed gives repeatable results.
+ */
+public class MonteCarloSimulatorTest {
+
+    /**
+     * Test that the histogram adds up to the number of games and that the same seed
+     * and thread count produce the same histogram.
+     */
+    @Test
+    void histogramShouldCountEveryGameAndBeRepeatable() throws InterruptedException {
+        BoardShape shape = BoardShape.diamond(9);
+        MonteCarloSimulator simulator = new MonteCarloSimulator(RuleSet.withDiagonals(shape), MonteCarloSimulator.RANDOM);
+
+        long[] first = simulator.run(shape.startingPosition(), 2_001, 3, 42);
+        long[] second = simulator.run(shape.startingPosition(), 2_001, 3, 42);
+
+        long total = 0;
+        for (long games : first) total += games;
+        assertEquals(2_001, total);
+        assertEquals(0, first[0]); // A game can never end with no pegs
+        assertArrayEquals(first, second);
+    }
+
+    /**
+     * Test that zero (or negative) games or threads are rejected up front.
+     */
+    @Test
+    void emptyRunsShouldBeRejected() {
+        BoardShape shape = BoardShape.english();
+        MonteCarloSimulator simulator = new MonteCarloSimulator(RuleSet.orthogonal(shape), MonteCarloSimulator.RANDOM);
+        long start = shape.startingPosition();
+
+        assertThrows(IllegalArgumentException.class, () -> simulator.run(start, 10, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> simulator.run(start, 0, 2, 1));
+        assertThrows(IllegalArgumentException.class, () -> simulator.run(start, -5, 2, 1));
+    }
+}
@@ -0,0 +1,66 @@
+import java.util.Arrays;
+
+// The moves of one game as a flat int[] of packed moves (see PackedMove), with a cursor so
+// undo and redo just move the cursor instead of copying boards.
+// Moves before the cursor have been played; moves after it were undone and can be redone.
+// Playing a new move after an undo drops the redo tail, like a text editor.
+public class MoveHistory {
+    private int[] moves = new int[32];
+    // Number of moves kept (played + undone)
+    private int size;
+    // Number of moves currently played
+    private int cursor;
+
+    // Records a newly played move, dropping anything that could have been redone
+    public void push(int move) {
+        if (cursor == moves.length) {
+            moves = Arrays.copyOf(moves, moves.length * 2);
+        }
+        moves[cursor++] = move;
+        size = cursor;
+    }
+
+    // Checks if there is a played move to take back
+    public boolean canUndo() {
+        return cursor > 0;
+    }
+
+    // Checks if there is an undone move to play again
+    public boolean canRedo() {
+        return cursor < size;
+    }
+
+    // Steps back one move and returns it (the caller reverses it on the board)
+    public int undo() {
+        if (cursor == 0) throw new IllegalStateException("Nothing to undo");
+        return moves[--cursor];
+    }
+
+    // Steps forward one move and returns it (the caller plays it on the board)
+    public int redo() {
+        if (cursor == size) throw new IllegalStateException("Nothing to redo");
+        return moves[cursor++];
+    }
+
+    // Returns how many moves are currently played
+    public int size() {
+        return cursor;
+    }
+
+    // Returns the i-th played move
+    public int get(int i) {
+        if (i < 0 || i >= cursor) throw new IndexOutOfBoundsException("Move " + i + " of " + cursor);
+        return moves[i];
+    }
+
+    // Forgets every move (played and undone)
+    public void clear() {
+        size = 0;
+        cursor = 0;
+    }
+
+    // Returns a copy of the played moves, e.g. to replay them with PegBoard.replay
+    public int[] toArray() {
+        return Arrays.copyOf(moves, cursor);
+    }
+}
@@ -0,0 +1,29 @@
+// Helpers for moves packed into a single int, so move lists can live in plain int[] arrays.
+// Layout: bits 0-7 = from hole, bits 8-15 = jumped-over hole, bits 16-23 = destination hole
+// (hole indexes as defined by BoardShape).
+public final class PackedMove {
+    private PackedMove() {
+    }
+
+    // Packs the three hole indexes of a jump into one int
+    public static int pack(int from, int over, int to) {
+        return from | (over << 8) | (to << 16);
+    }
+
+    // Packs jump j of the given rule set
+    public static int of(RuleSet rules, int jump) {
+        return pack(rules.jumpFrom(jump), rules.jumpOver(jump), rules.jumpTo(jump));
+    }
+
+    public static int from(int move) {
+        return move & 0xFF;
+    }
+
+    public static int over(int move) {
+        return (move >>> 8) & 0xFF;
+    }
+
+    public static int to(int move) {
+        return (move >>> 16) & 0xFF;
+    }
+}
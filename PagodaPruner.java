@@ -0,0 +1,228 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Cheap tests that prove a position can never reach the solver's target, so the search can
+// drop it without expanding it. Two kinds of invariants are used, both derived from the RuleSet
+// so they work for any board mask (English, diamond, ...) and for diagonal jumps:
+//
+// Position classes: parity checks over GF(2) (the parity of the pegs in some set of holes) that
+// no jump changes. On the English board these are the classic 16 position classes. A position
+// in another class than every target position is dead at once; for a start position that means
+// the whole solve is answered without searching (e.g. an English target in the wrong class, or
+// the 41-hole diamond, which can't be reduced to one peg from the full board minus the centre).
+//
+// Pagoda functions: a weight per hole such that w[to] <= w[from] + w[over] for every jump.
+// The sum of the weights of the pegs then never increases when a jump is played, so a position
+// whose sum is already below the target's can't reach it. We use weights sigma^d, where d is the
+// distance from a hole the last pegs have to end on and sigma = 0.618... (sigma + sigma^2 = 1).
+// With the Manhattan distance that works for orthogonal jumps, with the Chebyshev distance for
+// diagonal ones too; every candidate is checked against all jumps and dropped if it doesn't hold.
+//
+// A pruner is built for one target (or SolitaireSolver.ANY_SINGLE_PEG) and is immutable, so
+// solver threads can share it.
+public final class PagodaPruner {
+    // 1 / golden ratio: the smallest weight ratio for which a jump towards the centre can't gain
+    private static final double SIGMA = (Math.sqrt(5) - 1) / 2;
+    // Slack for rounding in the sums; real differences between pagoda values are far larger
+    private static final double EPSILON = 1e-9;
+    // At most 2^6 position classes are tracked (more invariants would only add rare extra cuts)
+    private static final int MAX_CLASS_BITS = 6;
+
+    private final int chunks;
+    // Class bit i is the parity of the pegs in classMasks[i]
+    private final long[] classMasks;
+    // For each class: byte tables of the pagodas to check (tables[p][chunk][value] = weights of
+    // the holes 8*chunk..8*chunk+7 set in value) and the value each must keep, or null if no
+    // target position is in that class
+    private final double[][][][] tables;
+    private final double[][] bounds;
+    private int pagodaCount;
+
+    // Builds the invariants of the rules and the bounds for the given target position
+    // (or SolitaireSolver.ANY_SINGLE_PEG for "one peg anywhere")
+    public PagodaPruner(RuleSet rules, long target) {
+        BoardShape shape = rules.getShape();
+        int holes = shape.getHoleCount();
+        this.chunks = (holes + 7) / 8;
+
+        List<Long> masks = findClassMasks(rules);
+        classMasks = new long[Math.min(masks.size(), MAX_CLASS_BITS)];
+        for (int i = 0; i < classMasks.length; i++) classMasks[i] = masks.get(i);
+
+        // Where the last pegs can be, per class: the target itself, or for "any single peg" the
+        // holes of that class
+        long[] finalHoles = new long[1 << classMasks.length];
+        if (target == SolitaireSolver.ANY_SINGLE_PEG) {
+            for (int hole = 0; hole < holes; hole++) finalHoles[positionClass(1L << hole)] |= 1L << hole;
+        } else {
+            finalHoles[positionClass(target)] = target;
+        }
+        int targetPegs = target == SolitaireSolver.ANY_SINGLE_PEG ? 1 : Long.bitCount(target);
+
+        tables = new double[finalHoles.length][][][];
+        bounds = new double[finalHoles.length][];
+        for (int cls = 0; cls < finalHoles.length; cls++) {
+            if (finalHoles[cls] == 0) continue;
+
+            // Pagodas centred elsewhere hardly ever cut anything these don't
+            List<double[]> pagodas = new ArrayList<>();
+            List<Double> needed = new ArrayList<>();
+            for (long rest = finalHoles[cls]; rest != 0; rest &= rest - 1) {
+                int centre = Long.numberOfTrailingZeros(rest);
+                for (boolean chebyshev : new boolean[]{false, true}) {
+                    double[] weights = distanceWeights(shape, centre, chebyshev);
+                    if (!isPagoda(rules, weights)) continue;
+                    double bound = target == SolitaireSolver.ANY_SINGLE_PEG
+                            ? minWeight(weights, finalHoles[cls]) : sum(weights, target);
+                    // Any position with targetPegs pegs is worth at least its smallest weights,
+                    // so a pagoda whose bound doesn't exceed that can never cut anything
+                    if (bound > smallestSum(weights, targetPegs) + EPSILON) {
+                        pagodas.add(weights);
+                        needed.add(bound);
+                    }
+                }
+            }
+
+            tables[cls] = new double[pagodas.size()][][];
+            bounds[cls] = new double[pagodas.size()];
+            for (int p = 0; p < pagodas.size(); p++) {
+                tables[cls][p] = byteTables(pagodas.get(p));
+                bounds[cls][p] = needed.get(p);
+            }
+            pagodaCount += pagodas.size();
+        }
+    }
+
+    // Returns false if the position provably can't reach the target; true means "maybe"
+    public boolean canReach(long pegs) {
+        int cls = positionClass(pegs);
+        double[][][] pagodas = tables[cls];
+        if (pagodas == null) return false;
+        double[] bound = bounds[cls];
+        for (int p = 0; p < pagodas.length; p++) {
+            if (value(pegs, pagodas[p]) < bound[p] - EPSILON) return false;
+        }
+        return true;
+    }
+
+    // Returns the class of a position (a number below 2^classBits()); jumps never change it
+    public int positionClass(long pegs) {
+        int cls = 0;
+        for (int i = 0; i < classMasks.length; i++) {
+            cls |= (Long.bitCount(pegs & classMasks[i]) & 1) << i;
+        }
+        return cls;
+    }
+
+    // Returns how many independent class invariants are checked
+    public int classBits() {
+        return classMasks.length;
+    }
+
+    // Returns how many pagoda functions are in use (over all classes)
+    public int pagodaCount() {
+        return pagodaCount;
+    }
+
+    // Pagoda value of a position, one table lookup per 8 holes
+    private double value(long pegs, double[][] table) {
+        double sum = 0;
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            sum += table[chunk][(int) (pegs >>> (chunk * 8)) & 0xFF];
+        }
+        return sum;
+    }
+
+    // sigma^distance from the centre hole, Manhattan or Chebyshev distance
+    private static double[] distanceWeights(BoardShape shape, int centre, boolean chebyshev) {
+        double[] weights = new double[shape.getHoleCount()];
+        for (int hole = 0; hole < weights.length; hole++) {
+            int dr = Math.abs(shape.holeRow(hole) - shape.holeRow(centre));
+            int dc = Math.abs(shape.holeCol(hole) - shape.holeCol(centre));
+            weights[hole] = Math.pow(SIGMA, chebyshev ? Math.max(dr, dc) : dr + dc);
+        }
+        return weights;
+    }
+
+    // True if no jump of the rules can increase the sum of the weights
+    private static boolean isPagoda(RuleSet rules, double[] weights) {
+        for (int j = 0; j < rules.jumpCount(); j++) {
+            double before = weights[rules.jumpFrom(j)] + weights[rules.jumpOver(j)];
+            if (weights[rules.jumpTo(j)] > before + EPSILON) return false;
+        }
+        return true;
+    }
+
+    private static double sum(double[] weights, long pegs) {
+        double sum = 0;
+        for (; pegs != 0; pegs &= pegs - 1) sum += weights[Long.numberOfTrailingZeros(pegs)];
+        return sum;
+    }
+
+    private static double minWeight(double[] weights, long holes) {
+        double min = Double.MAX_VALUE;
+        for (; holes != 0; holes &= holes - 1) min = Math.min(min, weights[Long.numberOfTrailingZeros(holes)]);
+        return min;
+    }
+
+    // Sum of the count smallest weights
+    private static double smallestSum(double[] weights, int count) {
+        double[] sorted = weights.clone();
+        Arrays.sort(sorted);
+        double sum = 0;
+        for (int i = 0; i < count && i < sorted.length; i++) sum += sorted[i];
+        return sum;
+    }
+
+    // Same byte-at-a-time tables as BoardSymmetry, holding sums instead of images
+    private double[][] byteTables(double[] weights) {
+        double[][] table = new double[chunks][256];
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            for (int value = 1; value < 256; value++) {
+                int hole = chunk * 8 + Integer.numberOfTrailingZeros(value);
+                double weight = hole < weights.length ? weights[hole] : 0;
+                table[chunk][value] = table[chunk][value & (value - 1)] + weight;
+            }
+        }
+        return table;
+    }
+
+    // Finds a basis of the parity checks no jump changes. A jump flips the three bits of its
+    // flip mask, so the parity of the pegs in a hole set m is invariant when |flipMask & m| is
+    // even for every jump: the null space over GF(2) of the matrix whose rows are the flip masks.
+    // (Sets with |flipMask & m| odd for every jump change parity with each jump; their
+    // complement is then even for every jump, so they add nothing.)
+    private static List<Long> findClassMasks(RuleSet rules) {
+        int holes = rules.getShape().getHoleCount();
+
+        // Gauss-Jordan elimination: rows[i] has its pivot at column pivots[i]
+        List<Long> rows = new ArrayList<>();
+        List<Integer> pivots = new ArrayList<>();
+        for (int j = 0; j < rules.jumpCount(); j++) {
+            long row = rules.flipMask(j);
+            for (int i = 0; i < rows.size(); i++) {
+                if ((row >>> pivots.get(i) & 1) != 0) row ^= rows.get(i);
+            }
+            if (row == 0) continue;
+            int pivot = Long.numberOfTrailingZeros(row);
+            for (int i = 0; i < rows.size(); i++) {
+                if ((rows.get(i) >>> pivot & 1) != 0) rows.set(i, rows.get(i) ^ row);
+            }
+            rows.add(row);
+            pivots.add(pivot);
+        }
+
+        // One basis vector per free column: set it, and each pivot column that depends on it
+        List<Long> masks = new ArrayList<>();
+        for (int free = 0; free < holes; free++) {
+            if (pivots.contains(free)) continue;
+            long mask = 1L << free;
+            for (int i = 0; i < rows.size(); i++) {
+                if ((rows.get(i) >>> free & 1) != 0) mask |= 1L << pivots.get(i);
+            }
+            masks.add(mask);
+        }
+        return masks;
+    }
+}
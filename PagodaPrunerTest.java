@@ -0,0 +1,122 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for PagodaPruner.
+ * A cut must never remove a position that can still reach the target, and the
+ * solvers must give the same answers with fewer nodes.
+ */
+public class PagodaPrunerTest {
+
+    /**
+     * Test every reachable position of a 4x4 square (with diagonal jumps): whenever
+     * the solver without pruning reaches the target, the pruner must allow it.
+     */
+    @Test
+    void cutsShouldNeverRemoveSolvablePositions() {
+        boolean[][] square = new boolean[4][4];
+        for (boolean[] row : square) Arrays.fill(row, true);
+        BoardShape shape = new BoardShape(square);
+        RuleSet rules = RuleSet.withDiagonals(shape);
+        long corner = 1L << shape.holeIndex(0, 0);
+
+        SolitaireSolver plain = new SolitaireSolver(rules);
+        plain.setPruning(false);
+        PagodaPruner any = new PagodaPruner(rules, SolitaireSolver.ANY_SINGLE_PEG);
+        PagodaPruner toCorner = new PagodaPruner(rules, corner);
+        long[] cut = new long[1];
+
+        new PositionEnumerator(rules, false, 1 << 16).enumerate(shape.startingPosition(), 1, (pegs, positions, count) -> {
+            for (int i = 0; i < count; i++) {
+                if (plain.solve(positions[i], SolitaireSolver.ANY_SINGLE_PEG) != null) {
+                    assertTrue(any.canReach(positions[i]));
+                }
+                if (plain.solve(positions[i], corner) != null) {
+                    assertTrue(toCorner.canReach(positions[i]));
+                } else if (!toCorner.canReach(positions[i])) {
+                    cut[0]++;
+                }
+            }
+        });
+        assertTrue(cut[0] > 0);
+    }
+
+    /**
+     * Test on random English and diamond games that jumps never change the position
+     * class, and that a position that has been cut stays cut after any jump.
+     */
+    @Test
+    void cutsShouldHoldForTheRestOfTheGame() {
+        SplittableRandom random = new SplittableRandom(5);
+        for (BoardShape shape : new BoardShape[]{BoardShape.english(), BoardShape.diamond(9)}) {
+            for (RuleSet rules : new RuleSet[]{RuleSet.orthogonal(shape), RuleSet.withDiagonals(shape)}) {
+                PagodaPruner any = new PagodaPruner(rules, SolitaireSolver.ANY_SINGLE_PEG);
+                PagodaPruner toCentre = new PagodaPruner(rules, 1L << shape.centerHole());
+                int[] jumps = new int[rules.jumpCount()];
+
+                for (int game = 0; game < 200; game++) {
+                    long pegs = shape.startingPosition();
+                    int moves;
+                    while ((moves = rules.legalJumps(pegs, jumps)) > 0) {
+                        long next = rules.apply(pegs, jumps[random.nextInt(moves)]);
+                        assertEquals(any.positionClass(pegs), any.positionClass(next));
+                        if (!any.canReach(pegs)) assertFalse(any.canReach(next));
+                        if (!toCentre.canReach(pegs)) assertFalse(toCentre.canReach(next));
+                        pegs = next;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Test that starts in the wrong position class are answered without searching:
+     * an English corner target, and the 41-hole diamond that can't end with one peg.
+     */
+    @Test
+    void wrongClassShouldBeRejectedAtTheStart() {
+        BoardShape english = BoardShape.english();
+        SolitaireSolver solver = new SolitaireSolver(RuleSet.orthogonal(english));
+        assertNull(solver.solve(english.startingPosition(), 1L << english.holeIndex(0, 2)));
+        assertEquals(1, solver.getNodeCount());
+
+        BoardShape diamond = BoardShape.diamond(9);
+        SolitaireSolver diamondSolver = new SolitaireSolver(RuleSet.orthogonal(diamond));
+        assertNull(diamondSolver.solve(diamond.startingPosition(), SolitaireSolver.ANY_SINGLE_PEG));
+        assertEquals(1, diamondSolver.getNodeCount());
+
+        ParallelSolver parallel = new ParallelSolver(RuleSet.orthogonal(diamond), 2);
+        assertNull(parallel.solve(diamond.startingPosition(), SolitaireSolver.ANY_SINGLE_PEG));
+        assertEquals(1, parallel.getNodeCount());
+        parallel.shutdown();
+    }
+
+    /**
+     * Test that an English variant (start and finish at the same edge hole) is solved
+     * both ways, visiting fewer nodes with the pagoda cuts.
+     */
+    @Test
+    void pruningShouldVisitFewerNodes() {
+        BoardShape shape = BoardShape.english();
+        RuleSet rules = RuleSet.orthogonal(shape);
+        int hole = shape.holeIndex(2, 0);
+        long start = shape.startingPosition(hole);
+
+        SolitaireSolver plain = new SolitaireSolver(rules);
+        plain.setPruning(false);
+        SolitaireSolver pruned = new SolitaireSolver(rules);
+
+        assertNotNull(plain.solve(start, 1L << hole));
+        int[] jumps = pruned.solve(start, 1L << hole);
+        assertNotNull(jumps);
+        long pegs = start;
+        for (int j : jumps) {
+            assertTrue(rules.canJump(pegs, j));
+            pegs = rules.apply(pegs, j);
+        }
+        assertEquals(1L << hole, pegs);
+        assertTrue(pruned.getNodeCount() < plain.getNodeCount());
+    }
+}
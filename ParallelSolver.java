@@ -0,0 +1,231 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Multi-threaded version of SolitaireSolver built on a ForkJoinPool.
+// Near the top of the tree (and whenever the pool is running out of queued work) a node's
+// children are forked as separate tasks, so idle threads can steal them; deeper down each task
+// searches sequentially. All threads share one lock-free table of dead positions
+// (see ConcurrentTranspositionTable), and the first thread to reach the target stops everyone else.
+// Positions a PagodaPruner proves can't reach the target are skipped without being expanded.
+public class ParallelSolver {
+    // Never fork below this many moves into the search (tasks would be too small to pay off)
+    private static final int MAX_SPLIT_DEPTH = 12;
+    // Fork children only while fewer than this many tasks are waiting to be stolen
+    private static final int SURPLUS_TASKS = 3;
+    // Default memory for the dead-position table
+    private static final long DEFAULT_TABLE_BYTES = 64L << 20;
+
+    private final RuleSet rules;
+    private final BoardSymmetry symmetry;
+    private final ForkJoinPool pool;
+
+    // State of the current solve call
+    private BoardSymmetry targetSymmetry;
+    private long target;
+    private int targetPegs;
+    // Dead positions of the current target, by canonical key (value unused, depth = pegs left)
+    private final ConcurrentTranspositionTable deadPositions;
+    private long deadTarget = SolitaireSolver.ANY_SINGLE_PEG;
+    // Invariant checks for the current target (immutable, shared by all threads)
+    private PagodaPruner pruner;
+    private final AtomicReference<int[]> solution = new AtomicReference<>();
+    private volatile boolean found;
+
+    // Node counters, one per worker thread so threads never write to a shared counter
+    private final Map<Thread, long[]> nodesPerThread = new ConcurrentHashMap<>();
+    private ThreadLocal<long[]> localNodes;
+    private long elapsedNanos;
+
+    // Creates a solver using the given number of threads and memory for the dead-position table
+    public ParallelSolver(RuleSet rules, int threads, long tableBytes) {
+        this.rules = rules;
+        this.symmetry = new BoardSymmetry(rules.getShape());
+        this.pool = new ForkJoinPool(threads);
+        this.deadPositions = new ConcurrentTranspositionTable(tableBytes,
+                ConcurrentTranspositionTable.Replacement.DEPTH_PREFERRED);
+    }
+
+    // Creates a solver using the given number of threads
+    public ParallelSolver(RuleSet rules, int threads) {
+        this(rules, threads, DEFAULT_TABLE_BYTES);
+    }
+
+    // Creates a solver using every available core
+    public ParallelSolver(RuleSet rules) {
+        this(rules, Runtime.getRuntime().availableProcessors());
+    }
+
+    // Same contract as SolitaireSolver.solve: returns the jump ids from start to target
+    // (or to any single peg for SolitaireSolver.ANY_SINGLE_PEG), or null if there is no solution.
+    public int[] solve(long start, long target) {
+        this.target = target;
+        this.targetPegs = target == SolitaireSolver.ANY_SINGLE_PEG ? 1 : Long.bitCount(target);
+        this.targetSymmetry = target == SolitaireSolver.ANY_SINGLE_PEG ? symmetry : symmetry.fixing(target);
+        // Dead positions stay valid while the target doesn't change
+        if (target != deadTarget || pruner == null) {
+            deadPositions.clear();
+            deadTarget = target;
+            pruner = new PagodaPruner(rules, target);
+        } else {
+            deadPositions.newSearch();
+            deadPositions.resetCounters();
+        }
+        solution.set(null);
+        found = false;
+        // Fresh thread-locals each call, so every worker registers a new counter
+        nodesPerThread.clear();
+        localNodes = ThreadLocal.withInitial(() -> {
+            long[] counter = new long[1];
+            nodesPerThread.put(Thread.currentThread(), counter);
+            return counter;
+        });
+
+        long begin = System.nanoTime();
+        if (Long.bitCount(start) >= targetPegs) {
+            pool.invoke(new SearchTask(start, new int[0]));
+        }
+        elapsedNanos = System.nanoTime() - begin;
+
+        return solution.get();
+    }
+
+    // Returns the total number of positions visited by the last solve call
+    public long getNodeCount() {
+        long total = 0;
+        for (long[] counter : nodesPerThread.values()) total += counter[0];
+        return total;
+    }
+
+    // Returns one line per worker thread with its node count and nodes/sec for the last solve
+    public List<String> threadReport() {
+        double seconds = Math.max(elapsedNanos, 1) / 1e9;
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<Thread, long[]> e : nodesPerThread.entrySet()) {
+            long nodes = e.getValue()[0];
+            lines.add(String.format("%s: %,d nodes, %,.0f nodes/sec", e.getKey().getName(), nodes, nodes / seconds));
+        }
+        lines.add(String.format("total: %,d nodes in %.3f s, %,.0f nodes/sec",
+                getNodeCount(), seconds, getNodeCount() / seconds));
+        lines.add(String.format("dead table: %,d hits, %,d misses, %,d stores, %,d collisions (%,d entries)",
+                deadPositions.hits(), deadPositions.misses(), deadPositions.stores(),
+                deadPositions.collisions(), deadPositions.capacity()));
+        return lines;
+    }
+
+    // Stops the worker threads; the solver can't be used afterwards
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    // One piece of the search: explores everything below "pegs", which was reached by "prefix"
+    private class SearchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long pegs;
+        private final int[] prefix;
+        // Moves made by this task below the prefix
+        private final int[] path = new int[BoardShape.MAX_HOLES];
+        private long[] nodes;
+        // Result of this task, read by the parent after invokeAll has joined it
+        private boolean solved;
+
+        SearchTask(long pegs, int[] prefix) {
+            this.pegs = pegs;
+            this.prefix = prefix;
+        }
+
+        @Override
+        protected void compute() {
+            nodes = localNodes.get();
+            solved = search(pegs, 0);
+        }
+
+        // Returns true if the target was reached below this position (by this task or a subtask)
+        private boolean search(long pegs, int depth) {
+            if (found) return false;
+            nodes[0]++;
+
+            if (Long.bitCount(pegs) == targetPegs) {
+                if (target != SolitaireSolver.ANY_SINGLE_PEG && pegs != target) return false;
+                finish(depth);
+                return true;
+            }
+
+            if (!pruner.canReach(pegs)) return false;
+            long key = targetSymmetry.canonical(pegs);
+            if (deadPositions.probe(key) != ConcurrentTranspositionTable.MISS) return false;
+
+            boolean solved;
+            if (prefix.length + depth < MAX_SPLIT_DEPTH && getSurplusQueuedTaskCount() < SURPLUS_TASKS) {
+                solved = forkChildren(pegs, depth);
+            } else {
+                solved = false;
+                int jumps = rules.jumpCount();
+                for (int j = 0; j < jumps && !solved; j++) {
+                    if (!rules.canJump(pegs, j)) continue;
+                    path[depth] = j;
+                    solved = search(rules.apply(pegs, j), depth + 1);
+                }
+            }
+
+            // If another thread finished first our children may have been cut short,
+            // so only record the position as dead when the search really completed
+            if (!solved && !found) deadPositions.store(key, 0, Long.bitCount(pegs));
+            return solved;
+        }
+
+        // Hands every child position to its own task so idle threads can steal them
+        private boolean forkChildren(long pegs, int depth) {
+            List<SearchTask> children = new ArrayList<>();
+            int jumps = rules.jumpCount();
+            for (int j = 0; j < jumps; j++) {
+                if (!rules.canJump(pegs, j)) continue;
+
+                int[] childPrefix = new int[prefix.length + depth + 1];
+                System.arraycopy(prefix, 0, childPrefix, 0, prefix.length);
+                System.arraycopy(path, 0, childPrefix, prefix.length, depth);
+                childPrefix[childPrefix.length - 1] = j;
+                children.add(new SearchTask(rules.apply(pegs, j), childPrefix));
+            }
+            invokeAll(children);
+
+            for (SearchTask child : children) {
+                if (child.solved) return true;
+            }
+            return false;
+        }
+
+        // Publishes prefix + path[0..depth) as the solution (only the first thread wins)
+        private void finish(int depth) {
+            int[] moves = new int[prefix.length + depth];
+            System.arraycopy(prefix, 0, moves, 0, prefix.length);
+            System.arraycopy(path, 0, moves, prefix.length, depth);
+            solution.compareAndSet(null, moves);
+            found = true;
+        }
+    }
+
+    // Command-line entry point: solves the starting position of a board and prints per-thread stats.
+    // Usage: java ParallelSolver [english|diamond] [diagonal] [threads]
+    public static void main(String[] args) {
+        BoardShape shape = args.length > 0 && args[0].equalsIgnoreCase("diamond")
+                ? BoardShape.diamond(9) : BoardShape.english();
+        boolean diagonal = args.length > 1 && args[1].equalsIgnoreCase("diagonal");
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        RuleSet rules = diagonal ? RuleSet.withDiagonals(shape) : RuleSet.orthogonal(shape);
+        ParallelSolver solver = new ParallelSolver(rules, threads);
+        int[] jumps = solver.solve(shape.startingPosition(), SolitaireSolver.ANY_SINGLE_PEG);
+
+        System.out.println(jumps == null ? "No solution" : "Solved in " + jumps.length + " moves");
+        for (String line : solver.threadReport()) {
+            System.out.println(line);
+        }
+        solver.shutdown();
+    }
+}
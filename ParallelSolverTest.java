@@ -0,0 +1,48 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for ParallelSolver.
+ * Checks that the fork-join search finds legal solutions and agrees with the
+ * single-threaded solver on unsolvable positions.
+ */
+public class ParallelSolverTest {
+
+    /**
+     * Test that the English start is solved to the center and the moves replay legally.
+     */
+    @Test
+    void englishStartShouldBeSolvedInParallel() {
+        BoardShape shape = BoardShape.english();
+        RuleSet rules = RuleSet.orthogonal(shape);
+        ParallelSolver solver = new ParallelSolver(rules, 4);
+
+        long center = 1L << shape.centerHole();
+        int[] jumps = solver.solve(shape.startingPosition(), center);
+        solver.shutdown();
+
+        assertNotNull(jumps);
+        assertEquals(31, jumps.length);
+        long pegs = shape.startingPosition();
+        for (int j : jumps) {
+            assertTrue(rules.canJump(pegs, j));
+            pegs = rules.apply(pegs, j);
+        }
+        assertEquals(center, pegs);
+        assertTrue(solver.getNodeCount() > 0);
+    }
+
+    /**
+     * Test that a position with no solution returns null, using diagonal rules on the diamond.
+     */
+    @Test
+    void unsolvablePositionShouldReturnNull() {
+        BoardShape shape = BoardShape.diamond(9);
+        RuleSet rules = RuleSet.withDiagonals(shape);
+        ParallelSolver solver = new ParallelSolver(rules, 2);
+
+        long pegs = (1L << shape.holeIndex(0, 4)) | (1L << shape.holeIndex(8, 4));
+        assertNull(solver.solve(pegs, SolitaireSolver.ANY_SINGLE_PEG));
+        solver.shutdown();
+    }
+}
@@ -0,0 +1,344 @@
+import java.util.Arrays;
+
+// The peg solitaire engine shared by the GUI, EnglishSolitaireGame and the headless tools.
+// It works for any board shape and rule set: the shape gives every hole a bit in a long
+// (see BoardShape) and the rule set has every jump precompiled into masks (see RuleSet).
+// On top of the position it keeps a set of legal jumps, so game-over checks and legal-move
+// queries don't need to scan the board. The set is brought up to date on the first query after
+// a move, not by the move itself, so playing or replaying moves costs no more than the jump.
+// Every move played is also recorded in a MoveHistory, so it can be undone and redone.
+public class PegBoard {
+    private final BoardShape shape;
+    private RuleSet rules;
+    // Zobrist hash of the starting position, so reset() doesn't have to recompute it
+    private final long startHash;
+
+    // Current position: bit i is set when hole i has a peg
+    private long pegs;
+    // Zobrist hash of pegs (see BoardShape.zobristHash), kept up to date on every move
+    private long hash;
+    // Set of legal jumps (bit j set = jump j can be played) and how many there are, valid when
+    // pendingJump is UP_TO_DATE. After a single move only the jumps sharing one of its three
+    // holes are rechecked (see RuleSet.affectedJumps); after more it's rebuilt from scratch.
+    private long[] legalJumps;
+    private int legalCount;
+    // UP_TO_DATE, the one jump played since the set was last valid, or STALE
+    private int pendingJump = STALE;
+    private static final int UP_TO_DATE = -1;
+    private static final int STALE = -2;
+
+    // Moves played so far (and undone moves that can be redone)
+    private final MoveHistory history = new MoveHistory();
+
+    // Creates a board in the starting position (all holes filled except the center)
+    public PegBoard(RuleSet rules) {
+        this.shape = rules.getShape();
+        this.rules = rules;
+        this.startHash = shape.zobristHash(shape.startingPosition());
+        this.legalJumps = new long[(rules.jumpCount() + 63) / 64];
+        reset();
+    }
+
+    // Puts the board back to the starting position
+    public void reset() {
+        pegs = shape.startingPosition();
+        hash = startHash;
+        history.clear();
+        pendingJump = STALE;
+    }
+
+    // Returns the board shape
+    public BoardShape getShape() {
+        return shape;
+    }
+
+    // Returns the rules currently in use
+    public RuleSet getRules() {
+        return rules;
+    }
+
+    // Returns the width/height of the grid the board sits in
+    public int getSize() {
+        return shape.getSize();
+    }
+
+    // Checks if the given position is a valid hole on the board
+    public boolean isValidHole(int r, int c) {
+        return shape.isValidHole(r, c);
+    }
+
+    // Checks if there is a peg at the given position
+    public boolean hasPeg(int r, int c) {
+        int hole = shape.holeIndex(r, c);
+        return hole >= 0 && (pegs & (1L << hole)) != 0;
+    }
+
+    // Attempts to move a peg from (fromR, fromC) to (toR, toC) by jumping over another peg.
+    // Returns true if the move is valid and performed, false otherwise.
+    public boolean tryMove(int fromR, int fromC, int toR, int toC) {
+        // Both positions must be valid holes (off-board cells have no index)
+        int from = shape.holeIndex(fromR, fromC);
+        int to = shape.holeIndex(toR, toC);
+        if (from < 0 || to < 0) return false;
+
+        // The two holes must be exactly one jump apart under the current rules
+        int jump = rules.findJump(from, to);
+        if (jump < 0) return false;
+
+        // Start and middle must have pegs, destination must be empty
+        if (!rules.canJump(pegs, jump)) return false;
+
+        applyJump(jump);
+        history.push(PackedMove.of(rules, jump));
+        return true;
+    }
+
+    // Plays a packed move (as returned by getLegalMoves). Returns false if it isn't legal.
+    public boolean playMove(int move) {
+        int jump = jumpOf(move);
+        if (jump < 0 || !rules.canJump(pegs, jump)) return false;
+
+        applyJump(jump);
+        history.push(PackedMove.of(rules, jump));
+        return true;
+    }
+
+    // Takes back the last move. Returns false if there is nothing to undo.
+    public boolean undo() {
+        if (!history.canUndo()) return false;
+        flipMove(history.undo());
+        return true;
+    }
+
+    // Plays the last undone move again. Returns false if there is nothing to redo.
+    public boolean redo() {
+        if (!history.canRedo()) return false;
+        flipMove(history.redo());
+        return true;
+    }
+
+    // Read-only view of the history. The MoveHistory itself stays private: changing it from
+    // outside would leave it out of step with the pegs, the legal jumps and the hash.
+
+    // Returns how many moves have been played (undone moves don't count)
+    public int historySize() {
+        return history.size();
+    }
+
+    // Returns the i-th played move (packed, see PackedMove)
+    public int historyMove(int i) {
+        return history.get(i);
+    }
+
+    // Checks if there is a played move to take back
+    public boolean canUndo() {
+        return history.canUndo();
+    }
+
+    // Checks if there is an undone move to play again
+    public boolean canRedo() {
+        return history.canRedo();
+    }
+
+    // Returns a copy of the played moves, e.g. to replay them on another board
+    public int[] historyToArray() {
+        return history.toArray();
+    }
+
+    // Resets to the starting position and plays the first count packed moves of a log.
+    // The legal move set is only rebuilt once at the end, so replaying long logs is cheap.
+    // If any move is illegal or malformed it returns false and leaves the board as it was.
+    public boolean replay(int[] moves, int count) {
+        return replay(shape.startingPosition(), moves, count);
+    }
+
+    // Same as above but starting from any position (e.g. a game that began with another hole empty)
+    public boolean replay(long start, int[] moves, int count) {
+        // Check the whole log first, so a bad entry can't leave half a game behind
+        long p = start & shape.allHoles();
+        for (int i = 0; i < count; i++) {
+            int jump = jumpOf(moves[i]);
+            if (jump < 0 || !rules.canJump(p, jump)) return false;
+            p = rules.apply(p, jump);
+        }
+
+        pegs = start & shape.allHoles();
+        hash = shape.zobristHash(pegs);
+        history.clear();
+        for (int i = 0; i < count; i++) {
+            int jump = jumpOf(moves[i]);
+            pegs = rules.apply(pegs, jump);
+            hash ^= rules.zobristDelta(jump);
+            history.push(PackedMove.of(rules, jump));
+        }
+        pendingJump = STALE;
+        return true;
+    }
+
+    // Fast path for batch callers (solvers, archive readers) that already have jump ids of the
+    // current rules: sets the board to start and plays jumps[0..count) without recording them,
+    // so the history is left empty. Returns false and leaves the board as it was if any jump
+    // is out of range or illegal.
+    public boolean replayJumps(long start, int[] jumps, int count) {
+        long p = start & shape.allHoles();
+        long h = shape.zobristHash(p);
+        for (int i = 0; i < count; i++) {
+            int jump = jumps[i];
+            if (jump < 0 || jump >= rules.jumpCount() || !rules.canJump(p, jump)) return false;
+            p = rules.apply(p, jump);
+            h ^= rules.zobristDelta(jump);
+        }
+
+        pegs = p;
+        hash = h;
+        history.clear();
+        pendingJump = STALE;
+        return true;
+    }
+
+    // Checks if the game is over (no legal move left)
+    public boolean isGameOver() {
+        syncLegalMoves();
+        return legalCount == 0;
+    }
+
+    // Returns how many legal moves the current position has
+    public int getLegalMoveCount() {
+        syncLegalMoves();
+        return legalCount;
+    }
+
+    // Checks if moving from (fromR, fromC) to (toR, toC) is currently legal, without moving
+    public boolean isLegalMove(int fromR, int fromC, int toR, int toC) {
+        syncLegalMoves();
+        int from = shape.holeIndex(fromR, fromC);
+        int to = shape.holeIndex(toR, toC);
+        if (from < 0 || to < 0) return false;
+        int jump = rules.findJump(from, to);
+        return jump >= 0 && (legalJumps[jump >>> 6] & (1L << jump)) != 0;
+    }
+
+    // Fills out with every legal move of the current position, packed with PackedMove, and
+    // returns how many there are. out needs room for getLegalMoveCount() values;
+    // reuse the same array between calls, nothing is allocated here.
+    public int getLegalMoves(int[] out) {
+        syncLegalMoves();
+        int count = 0;
+        for (int w = 0; w < legalJumps.length; w++) {
+            long bits = legalJumps[w];
+            while (bits != 0) {
+                int jump = (w << 6) | Long.numberOfTrailingZeros(bits);
+                out[count++] = PackedMove.of(rules, jump);
+                bits &= bits - 1;
+            }
+        }
+        return count;
+    }
+
+    // Counts the number of pegs currently on the board
+    public int countPegs() {
+        return Long.bitCount(pegs);
+    }
+
+    // Returns the packed position (bit i = peg in hole i)
+    public long getPegs() {
+        return pegs;
+    }
+
+    // Returns the 64-bit Zobrist hash of the current position, for transposition tables and
+    // duplicate detection. It is updated with one XOR per move, never by rescanning the board.
+    public long getHash() {
+        return hash;
+    }
+
+    // Replaces the current position with a packed one; bits outside the board are ignored
+    public void setPegs(long pegs) {
+        this.pegs = pegs & shape.allHoles();
+        this.hash = shape.zobristHash(this.pegs);
+        history.clear();
+        pendingJump = STALE;
+    }
+
+    // Switches to different rules for the same shape (e.g. turning diagonal jumps on/off),
+    // keeping the pegs where they are
+    public void setRules(RuleSet rules) {
+        if (rules.getShape() != shape) {
+            throw new IllegalArgumentException("Rules were compiled for a different board shape");
+        }
+        this.rules = rules;
+        this.legalJumps = new long[(rules.jumpCount() + 63) / 64];
+        pendingJump = STALE;
+    }
+
+    // Returns the jump id of a packed move, or -1 unless all three holes are on the board and
+    // form a jump of the current rules (the history must only ever hold well-formed moves)
+    private int jumpOf(int move) {
+        int holes = shape.getHoleCount();
+        int from = PackedMove.from(move);
+        int over = PackedMove.over(move);
+        int to = PackedMove.to(move);
+        if (from >= holes || over >= holes || to >= holes || move >>> 24 != 0) return -1;
+
+        int jump = rules.findJump(from, to);
+        return jump >= 0 && rules.jumpOver(jump) == over ? jump : -1;
+    }
+
+    // Performs a jump that is known to be legal
+    private void applyJump(int jump) {
+        // Flips the start, middle and destination bits at once
+        pegs = rules.apply(pegs, jump);
+        hash ^= rules.zobristDelta(jump);
+        pendingJump = pendingJump == UP_TO_DATE ? jump : STALE;
+    }
+
+    // Plays or takes back a recorded move; a jump is its own inverse since it just flips
+    // three holes. The move may have been played under other rules (e.g. a diagonal jump
+    // before diagonals were turned off), so fall back to flipping the bits directly.
+    private void flipMove(int move) {
+        int from = PackedMove.from(move);
+        int over = PackedMove.over(move);
+        int to = PackedMove.to(move);
+
+        int jump = rules.findJump(from, to);
+        if (jump >= 0 && rules.jumpOver(jump) == over) {
+            applyJump(jump);
+            return;
+        }
+        pegs ^= (1L << from) | (1L << over) | (1L << to);
+        hash ^= shape.zobristKey(from) ^ shape.zobristKey(over) ^ shape.zobristKey(to);
+        pendingJump = STALE;
+    }
+
+    // Brings the legal move set up to date with the position (called by every query)
+    private void syncLegalMoves() {
+        if (pendingJump == UP_TO_DATE) return;
+        if (pendingJump == STALE) rebuildLegalMoves();
+        else updateLegalMoves(pendingJump);
+        pendingJump = UP_TO_DATE;
+    }
+
+    // Recomputes the legal move set from scratch (after the whole position changed)
+    private void rebuildLegalMoves() {
+        Arrays.fill(legalJumps, 0);
+        legalCount = 0;
+        for (int j = 0; j < rules.jumpCount(); j++) {
+            if (rules.canJump(pegs, j)) {
+                legalJumps[j >>> 6] |= 1L << j;
+                legalCount++;
+            }
+        }
+    }
+
+    // Rechecks only the jumps that share a hole with the jump just played (the set must be
+    // the one from just before it)
+    private void updateLegalMoves(int played) {
+        for (int j : rules.affectedJumps(played)) {
+            boolean now = rules.canJump(pegs, j);
+            boolean was = (legalJumps[j >>> 6] & (1L << j)) != 0;
+            if (now != was) {
+                legalJumps[j >>> 6] ^= 1L << j;
+                legalCount += now ? 1 : -1;
+            }
+        }
+    }
+}
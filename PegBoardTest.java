@@ -0,0 +1,187 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for PegBoard.
+ * Checks that the same engine handles other shapes and that switching rules keeps the pegs.
+ */
+public class PegBoardTest {
+
+    /**
+     * Test that a diagonal jump on the diamond board is only legal with the diagonal rules,
+     * and that switching rules keeps the position.
+     */
+    @Test
+    void diagonalJumpShouldDependOnRules() {
+        BoardShape shape = BoardShape.diamond(9);
+        PegBoard board = new PegBoard(RuleSet.orthogonal(shape));
+        long start = board.getPegs();
+
+        // (2,2) over (3,3) into the empty center (4,4)
+        assertFalse(board.isLegalMove(2, 2, 4, 4));
+        assertFalse(board.tryMove(2, 2, 4, 4));
+
+        board.setRules(RuleSet.withDiagonals(shape));
+        assertEquals(start, board.getPegs());
+        assertTrue(board.isLegalMove(2, 2, 4, 4));
+        assertTrue(board.tryMove(2, 2, 4, 4));
+        assertFalse(board.hasPeg(2, 2));
+        assertFalse(board.hasPeg(3, 3));
+        assertTrue(board.hasPeg(4, 4));
+    }
+
+    /**
+     * Test that rules compiled for a different shape are rejected.
+     */
+    @Test
+    void rulesForAnotherShapeShouldBeRejected() {
+        PegBoard board = new PegBoard(RuleSet.orthogonal(BoardShape.english()));
+        assertThrows(IllegalArgumentException.class,
+                () -> board.setRules(RuleSet.orthogonal(BoardShape.diamond(9))));
+    }
+
+    /**
+     * Test that the incrementally updated hash always matches a hash computed from scratch,
+     * and that the same position set directly gives the same hash.
+     */
+    @Test
+    void hashShouldMatchFullRecomputation() {
+        BoardShape shape = BoardShape.english();
+        PegBoard board = new PegBoard(RuleSet.orthogonal(shape));
+        assertEquals(shape.zobristHash(board.getPegs()), board.getHash());
+
+        assertTrue(board.tryMove(1, 3, 3, 3));
+        assertEquals(shape.zobristHash(board.getPegs()), board.getHash());
+        assertTrue(board.tryMove(2, 1, 2, 3));
+        assertEquals(shape.zobristHash(board.getPegs()), board.getHash());
+        long hash = board.getHash();
+
+        PegBoard other = new PegBoard(RuleSet.orthogonal(shape));
+        other.setPegs(board.getPegs());
+        assertEquals(hash, other.getHash());
+        assertNotEquals(hash, new PegBoard(RuleSet.orthogonal(shape)).getHash());
+    }
+
+    /**
+     * Test that undo restores the position, hash and legal moves, that redo plays the move
+     * again, and that a new move drops the redo tail.
+     */
+    @Test
+    void undoAndRedoShouldRestoreState() {
+        PegBoard board = new PegBoard(RuleSet.orthogonal(BoardShape.english()));
+        long start = board.getPegs();
+        long startHash = board.getHash();
+        int startMoves = board.getLegalMoveCount();
+
+        assertFalse(board.undo());
+        assertTrue(board.tryMove(1, 3, 3, 3));
+        long afterPegs = board.getPegs();
+
+        assertTrue(board.undo());
+        assertEquals(start, board.getPegs());
+        assertEquals(startHash, board.getHash());
+        assertEquals(startMoves, board.getLegalMoveCount());
+        assertEquals(0, board.historySize());
+
+        assertTrue(board.redo());
+        assertEquals(afterPegs, board.getPegs());
+        assertEquals(1, board.historySize());
+
+        assertTrue(board.undo());
+        assertTrue(board.tryMove(3, 1, 3, 3));
+        assertFalse(board.redo());
+    }
+
+    /**
+     * Test that replaying a recorded log gives the same position, and that replay refuses a log
+     * with an illegal or malformed move without touching the board.
+     */
+    @Test
+    void replayShouldRebuildTheGame() {
+        RuleSet rules = RuleSet.orthogonal(BoardShape.english());
+        PegBoard board = new PegBoard(rules);
+        assertTrue(board.tryMove(1, 3, 3, 3));
+        assertTrue(board.tryMove(2, 1, 2, 3));
+        assertTrue(board.tryMove(0, 2, 2, 2));
+        int[] log = board.historyToArray();
+
+        PegBoard copy = new PegBoard(rules);
+        assertTrue(copy.replay(log, log.length));
+        assertEquals(board.getPegs(), copy.getPegs());
+        assertEquals(board.getHash(), copy.getHash());
+        assertEquals(board.getLegalMoveCount(), copy.getLegalMoveCount());
+
+        // Playing the first move twice is illegal, and so is a move with the wrong middle hole:
+        // replay refuses the whole log and the board keeps the game it had
+        int[] bad = { log[0], log[0] };
+        assertFalse(copy.replay(bad, bad.length));
+        int[] wrongOver = { log[0], PackedMove.pack(PackedMove.from(log[1]), 0, PackedMove.to(log[1])) };
+        assertFalse(copy.replay(wrongOver, wrongOver.length));
+        assertEquals(board.getPegs(), copy.getPegs());
+        assertEquals(log.length, copy.historySize());
+    }
+
+    /**
+     * Test that replaying jump ids gives the same position and hash as playing the moves, without
+     * recording history, and that a log with a bad jump id leaves the board as it was.
+     */
+    @Test
+    void replayJumpsShouldMatchPlayedMoves() {
+        BoardShape shape = BoardShape.english();
+        RuleSet rules = RuleSet.orthogonal(shape);
+        PegBoard board = new PegBoard(rules);
+        assertTrue(board.tryMove(1, 3, 3, 3));
+        assertTrue(board.tryMove(2, 1, 2, 3));
+        assertTrue(board.tryMove(0, 2, 2, 2));
+        int[] jumps = new int[board.historySize()];
+        for (int i = 0; i < jumps.length; i++) {
+            int move = board.historyMove(i);
+            jumps[i] = rules.findJump(PackedMove.from(move), PackedMove.to(move));
+        }
+
+        PegBoard copy = new PegBoard(rules);
+        assertTrue(copy.replayJumps(shape.startingPosition(), jumps, jumps.length));
+        assertEquals(board.getPegs(), copy.getPegs());
+        assertEquals(board.getHash(), copy.getHash());
+        assertEquals(board.getLegalMoveCount(), copy.getLegalMoveCount());
+        assertEquals(0, copy.historySize());
+
+        int[] bad = { jumps[0], rules.jumpCount() };
+        assertFalse(copy.replayJumps(shape.startingPosition(), bad, bad.length));
+        int[] twice = { jumps[0], jumps[0] };
+        assertFalse(copy.replayJumps(shape.startingPosition(), twice, twice.length));
+        assertEquals(board.getPegs(), copy.getPegs());
+    }
+
+    /**
+     * Test that malformed packed moves (holes off the board, the wrong jumped-over hole, stray
+     * high bits) are rejected, and that undo afterwards still restores the start exactly.
+     */
+    @Test
+    void malformedPackedMovesShouldBeRejected() {
+        BoardShape shape = BoardShape.english();
+        RuleSet rules = RuleSet.orthogonal(shape);
+        PegBoard board = new PegBoard(rules);
+        long start = board.getPegs();
+        long startHash = board.getHash();
+
+        int from = shape.holeIndex(1, 3);
+        int over = shape.holeIndex(2, 3);
+        int to = shape.holeIndex(3, 3);
+        int good = PackedMove.pack(from, over, to);
+
+        assertFalse(board.playMove(PackedMove.pack(0, over, 148)));
+        assertFalse(board.playMove(PackedMove.pack(from, 200, to)));
+        assertFalse(board.playMove(PackedMove.pack(from, shape.holeIndex(2, 2), to)));
+        assertFalse(board.playMove(good | (1 << 24)));
+        assertEquals(start, board.getPegs());
+        assertEquals(0, board.historySize());
+
+        assertTrue(board.playMove(good));
+        assertEquals(good, board.historyMove(0));
+        assertTrue(board.undo());
+        assertEquals(start, board.getPegs());
+        assertEquals(startHash, board.getHash());
+        assertEquals(32, board.countPegs());
+    }
+}
@@ -0,0 +1,187 @@
+import java.util.Arrays;
+
+// Breadth-first enumeration of every position reachable from a start position.
+// Since each jump removes exactly one peg, all positions with k pegs form one BFS level and
+// level k-1 is built only from level k. Each level is kept as a sorted, duplicate-free long[]:
+// children are collected into a fixed-size buffer, radix sorted, de-duplicated and merged into
+// the next level (see LevelBuilder), so memory stays bounded by about three levels plus the
+// buffer (no boxed HashSets).
+public class PositionEnumerator {
+    // Default size of the child buffer (4M positions = 32 MB, plus the same again for sorting)
+    private static final int DEFAULT_CHUNK = 1 << 22;
+
+    // Called once per level with the sorted, duplicate-free positions of that level.
+    // The array is reused afterwards, so copy it if you need to keep it.
+    public interface LevelListener {
+        void onLevel(int pegs, long[] positions, int count);
+    }
+
+    private final RuleSet rules;
+    // When set, positions are stored by their canonical form (one entry per symmetry class)
+    private final BoardSymmetry symmetry;
+    private final int chunkSize;
+
+    // For canonical mode: each jump's symmetric images and a scratch array for the parent's,
+    // so every child is canonicalized with a few XORs (see BoardSymmetry.jumpImages)
+    private final long[][] jumpImages;
+    private final long[] parentImages;
+
+    // Enumerates every distinct position
+    public PositionEnumerator(RuleSet rules) {
+        this(rules, false, DEFAULT_CHUNK);
+    }
+
+    // Enumerates positions, optionally merging symmetric copies into one canonical position.
+    // chunkSize is how many children are buffered before each sort/merge step; it must hold
+    // all children of one position (rules.jumpCount()).
+    public PositionEnumerator(RuleSet rules, boolean canonical, int chunkSize) {
+        if (chunkSize < rules.jumpCount()) {
+            throw new IllegalArgumentException("Chunk size " + chunkSize + " can't hold the "
+                    + rules.jumpCount() + " children a position may have");
+        }
+        this.rules = rules;
+        this.symmetry = canonical ? new BoardSymmetry(rules.getShape()) : null;
+        this.chunkSize = chunkSize;
+        this.jumpImages = canonical ? symmetry.jumpImages(rules) : null;
+        this.parentImages = new long[canonical ? symmetry.size() : 0];
+    }
+
+    // Walks the levels from start down to minPegs pegs (or until no moves are left) and
+    // reports each one to the listener. Returns the total number of positions found.
+    public long enumerate(long start, int minPegs, LevelListener listener) {
+        long[] level = {key(start)};
+        int count = 1;
+        int pegs = Long.bitCount(start);
+        long total = 0;
+
+        long[] chunk = new long[chunkSize];
+        long[] scratch = new long[chunkSize];
+        int jumps = rules.jumpCount();
+
+        while (count > 0) {
+            listener.onLevel(pegs, level, count);
+            total += count;
+            if (pegs <= minPegs) break;
+
+            // Build the next level: fill the chunk, then sort + merge it into "next"
+            LevelBuilder next = new LevelBuilder();
+            int filled = 0;
+
+            for (int i = 0; i < count; i++) {
+                long p = level[i];
+                // Make sure a whole position's children always fit in the chunk
+                if (filled + jumps > chunkSize) {
+                    next.addChunk(chunk, filled, scratch);
+                    filled = 0;
+                }
+                filled = children(p, chunk, filled);
+            }
+            next.addChunk(chunk, filled, scratch);
+            next.finish();
+
+            level = next.values;
+            count = next.count;
+            pegs--;
+        }
+        return total;
+    }
+
+    // Writes every child of pegs (canonical if enabled) into out starting at offset, and returns
+    // the new offset. out needs room for jumpCount() more values.
+    public int children(long pegs, long[] out, int offset) {
+        int jumps = rules.jumpCount();
+        if (symmetry == null) {
+            for (int j = 0; j < jumps; j++) {
+                if (rules.canJump(pegs, j)) out[offset++] = rules.apply(pegs, j);
+            }
+            return offset;
+        }
+
+        symmetry.transformAll(pegs, parentImages);
+        int symmetries = parentImages.length;
+        for (int j = 0; j < jumps; j++) {
+            if (!rules.canJump(pegs, j)) continue;
+            long[] images = jumpImages[j];
+            long best = parentImages[0] ^ images[0];
+            for (int s = 1; s < symmetries; s++) {
+                long t = parentImages[s] ^ images[s];
+                if (t < best) best = t;
+            }
+            out[offset++] = best;
+        }
+        return offset;
+    }
+
+    // Returns the canonical form of pegs in canonical mode, or pegs itself otherwise
+    public long key(long pegs) {
+        return symmetry == null ? pegs : symmetry.canonical(pegs);
+    }
+
+    // A sorted, duplicate-free level built from chunks of children: add every chunk, then call
+    // finish() once before reading values and count (also used by BidirectionalSolver).
+    // Merging each chunk into the whole level would copy the level once per chunk, which is
+    // quadratic. Instead the sorted chunks are kept as runs that are merged like a binary
+    // counter: a run is merged into the one below it once it is at least half that size, so every
+    // position is copied O(log(level / chunk)) times and the runs take at most twice the level.
+    static final class LevelBuilder {
+        long[] values = new long[0];
+        int count;
+
+        // Pending runs, bottom first; each holds more than twice as many positions as the next
+        private long[][] runs = new long[8][];
+        private int[] runSizes = new int[8];
+        private int runCount;
+
+        // Sorts and de-duplicates chunk[0..filled) and adds it as a run (the chunk can be reused)
+        void addChunk(long[] chunk, int filled, long[] scratch) {
+            LongSorts.radixSort(chunk, filled, scratch);
+            int unique = LongSorts.unique(chunk, filled);
+            if (unique == 0) return;
+
+            long[] run = Arrays.copyOf(chunk, unique);
+            int size = unique;
+            while (runCount > 0 && runSizes[runCount - 1] <= 2 * size) {
+                runCount--;
+                long[] merged = new long[runSizes[runCount] + size];
+                size = LongSorts.mergeUnique(runs[runCount], runSizes[runCount], run, size, merged);
+                run = merged;
+                runs[runCount] = null;
+            }
+            if (runCount == runs.length) {
+                runs = Arrays.copyOf(runs, runCount * 2);
+                runSizes = Arrays.copyOf(runSizes, runCount * 2);
+            }
+            runs[runCount] = run;
+            runSizes[runCount] = size;
+            runCount++;
+        }
+
+        // Merges the pending runs into values and count
+        void finish() {
+            while (runCount > 0) {
+                runCount--;
+                long[] merged = new long[count + runSizes[runCount]];
+                count = LongSorts.mergeUnique(values, count, runs[runCount], runSizes[runCount], merged);
+                values = merged;
+                runs[runCount] = null;
+            }
+        }
+    }
+
+    // Command-line entry point: prints the number of reachable positions per peg count.
+    // Usage: java PositionEnumerator [english|diamond] [diagonal] [all]
+    // By default symmetric positions are counted once (23,475,688 for the English board).
+    public static void main(String[] args) {
+        BoardShape shape = args.length > 0 && args[0].equalsIgnoreCase("diamond")
+                ? BoardShape.diamond(9) : BoardShape.english();
+        boolean diagonal = args.length > 1 && args[1].equalsIgnoreCase("diagonal");
+        boolean canonical = !(args.length > 2 && args[2].equalsIgnoreCase("all"));
+        RuleSet rules = diagonal ? RuleSet.withDiagonals(shape) : RuleSet.orthogonal(shape);
+
+        long begin = System.nanoTime();
+        long total = new PositionEnumerator(rules, canonical, DEFAULT_CHUNK).enumerate(
+                shape.startingPosition(), 1,
+                (pegs, positions, count) -> System.out.printf("%2d pegs: %,d positions%n", pegs, count));
+        System.out.printf("total: %,d positions in %.2f s%n", total, (System.nanoTime() - begin) / 1e9);
+    }
+}
@@ -0,0 +1,92 @@
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for PositionEnumerator and LongSorts.
+ * Checks the level counts of the first moves of the English board and the sort helpers.
+ */
+public class PositionEnumeratorTest {
+
+    /**
+     * Test the known number of reachable English positions after 0-4 moves
+     * (1, 4, 12, 60, 296), with a tiny chunk so many sort/merge steps are exercised.
+     */
+    @Test
+    void englishLevelsShouldMatchKnownCounts() {
+        RuleSet rules = RuleSet.orthogonal(BoardShape.english());
+        List<Integer> counts = new ArrayList<>();
+
+        long total = new PositionEnumerator(rules, false, 100).enumerate(
+                BoardShape.english().startingPosition(), 28,
+                (pegs, positions, count) -> counts.add(count));
+
+        assertEquals(List.of(1, 4, 12, 60, 296), counts);
+        assertEquals(373, total);
+    }
+
+    /**
+     * Test that canonical enumeration merges the four symmetric opening moves into one.
+     */
+    @Test
+    void canonicalLevelsShouldBeSmaller() {
+        RuleSet rules = RuleSet.orthogonal(BoardShape.english());
+        List<Integer> counts = new ArrayList<>();
+
+        new PositionEnumerator(rules, true, 1000).enumerate(
+                BoardShape.english().startingPosition(), 30,
+                (pegs, positions, count) -> counts.add(count));
+
+        assertEquals(List.of(1, 1, 2), counts);
+    }
+
+    /**
+     * Test that a level built from many small chunks is the same as one built from a single
+     * chunk, level by level, down to 22 pegs.
+     */
+    @Test
+    void smallChunksShouldGiveTheSameLevels() {
+        RuleSet rules = RuleSet.orthogonal(BoardShape.english());
+        long start = BoardShape.english().startingPosition();
+        List<long[]> expected = new ArrayList<>();
+        new PositionEnumerator(rules, true, 1 << 16).enumerate(start, 22,
+                (pegs, positions, count) -> expected.add(java.util.Arrays.copyOf(positions, count)));
+
+        List<long[]> actual = new ArrayList<>();
+        new PositionEnumerator(rules, true, rules.jumpCount()).enumerate(start, 22,
+                (pegs, positions, count) -> actual.add(java.util.Arrays.copyOf(positions, count)));
+
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i), actual.get(i));
+        }
+    }
+
+    /**
+     * Test that a chunk too small for one position's children is rejected up front.
+     */
+    @Test
+    void tooSmallChunkShouldBeRejected() {
+        RuleSet rules = RuleSet.orthogonal(BoardShape.english());
+        assertThrows(IllegalArgumentException.class,
+                () -> new PositionEnumerator(rules, false, rules.jumpCount() - 1));
+    }
+
+    /**
+     * Test radix sort + unique against a simple expected result.
+     */
+    @Test
+    void radixSortAndUniqueShouldSortAndDeduplicate() {
+        long[] a = {5L << 40, 3, 1L << 20, 3, 7, 5L << 40, 0};
+        long[] scratch = new long[a.length];
+
+        LongSorts.radixSort(a, a.length, scratch);
+        int n = LongSorts.unique(a, a.length);
+
+        assertEquals(5, n);
+        assertArrayEquals(new long[]{0, 3, 7, 1L << 20, 5L << 40}, java.util.Arrays.copyOf(a, n));
+        assertTrue(LongSorts.contains(a, n, 7));
+        assertFalse(LongSorts.contains(a, n, 8));
+    }
+}
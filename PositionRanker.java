@@ -0,0 +1,66 @@
+// Numbers the positions with a given peg count densely: the C(holes, pegs) positions with
+// k pegs get the ranks 0 .. C(holes, k) - 1, with no gaps. That lets a cache or visited set
+// for one level be a plain bitset or array indexed by rank instead of a hash set of longs
+// (e.g. 16 pegs on the English board: C(33, 16) positions = one bit each, 140 MB).
+//
+// The rank is the combinatorial number system ("colex" order): if the pegs sit in holes
+// h1 < h2 < ... < hk, the rank is C(h1, 1) + C(h2, 2) + ... + C(hk, k). It only depends on
+// the hole indexes, so it works for any BoardShape mask.
+public final class PositionRanker {
+    private final int holes;
+    private final long allHoles;
+    // binomial[n][k] = C(n, k) for n <= holes (C(64, 32) still fits in a long)
+    private final long[][] binomial;
+
+    public PositionRanker(BoardShape shape) {
+        this.holes = shape.getHoleCount();
+        this.allHoles = shape.allHoles();
+        binomial = new long[holes + 1][holes + 1];
+        for (int n = 0; n <= holes; n++) {
+            binomial[n][0] = 1;
+            for (int k = 1; k <= n; k++) {
+                binomial[n][k] = binomial[n - 1][k - 1] + binomial[n - 1][k];
+            }
+        }
+    }
+
+    // Number of positions with the given number of pegs (= the range of rank for that level)
+    public long count(int pegs) {
+        if (pegs < 0 || pegs > holes) {
+            throw new IllegalArgumentException("A board with " + holes + " holes can't hold " + pegs + " pegs");
+        }
+        return binomial[holes][pegs];
+    }
+
+    // Dense index of a position among all positions with the same number of pegs
+    public long rank(long pegs) {
+        if ((pegs & ~allHoles) != 0) {
+            throw new IllegalArgumentException("Pegs outside the board: " + Long.toHexString(pegs & ~allHoles));
+        }
+        long rank = 0;
+        int i = 1;
+        while (pegs != 0) {
+            rank += binomial[Long.numberOfTrailingZeros(pegs)][i++];
+            pegs &= pegs - 1;
+        }
+        return rank;
+    }
+
+    // The position with the given number of pegs and rank (inverse of rank)
+    public long unrank(long rank, int pegs) {
+        if (rank < 0 || rank >= count(pegs)) {
+            throw new IllegalArgumentException("Rank " + rank + " out of range for " + pegs + " pegs");
+        }
+        long position = 0;
+        int hole = holes;
+        // Place the pegs from the highest one down: peg k goes in the largest hole h with C(h, k) <= rank
+        for (int k = pegs; k > 0; k--) {
+            do {
+                hole--;
+            } while (binomial[hole][k] > rank);
+            position |= 1L << hole;
+            rank -= binomial[hole][k];
+        }
+        return position;
+    }
+}
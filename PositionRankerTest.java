@@ -0,0 +1,68 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for PositionRanker.
+ * Ranks must be dense, unique and reversible for every level.
+ */
+public class PositionRankerTest {
+
+    /**
+     * Test that on a 4x4 board every position of every level gets a distinct rank below
+     * count(k), and that unrank gives the position back.
+     */
+    @Test
+    void ranksShouldBeDenseOnSmallBoard() {
+        boolean[][] square = new boolean[4][4];
+        for (boolean[] row : square) Arrays.fill(row, true);
+        PositionRanker ranker = new PositionRanker(new BoardShape(square));
+
+        long[][] seen = new long[17][];
+        for (int k = 0; k <= 16; k++) seen[k] = new long[(int) ((ranker.count(k) + 63) / 64)];
+
+        for (long pegs = 0; pegs < 1L << 16; pegs++) {
+            int k = Long.bitCount(pegs);
+            long rank = ranker.rank(pegs);
+            assertTrue(rank >= 0 && rank < ranker.count(k));
+            assertEquals(0, seen[k][(int) (rank >>> 6)] & (1L << rank), "rank used twice");
+            seen[k][(int) (rank >>> 6)] |= 1L << rank;
+            assertEquals(pegs, ranker.unrank(rank, k));
+        }
+        assertEquals(12870, ranker.count(8));
+    }
+
+    /**
+     * Test random English and diamond positions round-trip, and the size of the largest level.
+     */
+    @Test
+    void randomPositionsShouldRoundTrip() {
+        SplittableRandom random = new SplittableRandom(5);
+        for (BoardShape shape : new BoardShape[] { BoardShape.english(), BoardShape.diamond(9) }) {
+            PositionRanker ranker = new PositionRanker(shape);
+            for (int i = 0; i < 10_000; i++) {
+                long pegs = random.nextLong() & shape.allHoles();
+                assertEquals(pegs, ranker.unrank(ranker.rank(pegs), Long.bitCount(pegs)));
+            }
+            assertEquals(shape.allHoles(), ranker.unrank(0, shape.getHoleCount()));
+        }
+        assertEquals(1_166_803_110L, new PositionRanker(BoardShape.english()).count(16));
+    }
+
+    /**
+     * Test that impossible peg counts and positions with pegs off the board are rejected.
+     */
+    @Test
+    void invalidArgumentsShouldBeRejected() {
+        BoardShape shape = BoardShape.english();
+        PositionRanker ranker = new PositionRanker(shape);
+
+        assertEquals(1, ranker.count(shape.getHoleCount()));
+        assertThrows(IllegalArgumentException.class, () -> ranker.count(shape.getHoleCount() + 1));
+        assertThrows(IllegalArgumentException.class, () -> ranker.count(-1));
+        assertThrows(IllegalArgumentException.class, () -> ranker.unrank(0, shape.getHoleCount() + 1));
+        assertThrows(IllegalArgumentException.class, () -> ranker.rank(1L << shape.getHoleCount()));
+        assertThrows(IllegalArgumentException.class, () -> ranker.rank(-1L));
+    }
+}
@@ -0,0 +1,200 @@
+import java.util.Arrays;
+
+// The jump rules for one board shape, compiled into flat tables.
+// Every legal jump (from -> over -> to) on the shape gets an id, and for each id we keep the
+// hole indexes plus the bit masks needed to test and apply it on a packed position.
+// That turns move checks into a couple of AND/XOR operations instead of walking 2D arrays.
+public final class RuleSet {
+    // Jump directions are "2 cells away" because a jump is length 2
+    private static final int[][] ORTHOGONAL_DIRS = {
+        {-2, 0}, {2, 0}, {0, -2}, {0, 2}
+    };
+    // Same as above plus the four diagonal jumps (the GUI's "Allow diagonal moves" option)
+    private static final int[][] DIAGONAL_DIRS = {
+        {-2, 0}, {2, 0}, {0, -2}, {0, 2},
+        {-2, -2}, {-2, 2}, {2, -2}, {2, 2}
+    };
+
+    private final BoardShape shape;
+    private final boolean diagonal;
+    private final int jumpCount;
+
+    // Hole indexes for each jump id
+    private final int[] jumpFrom;
+    private final int[] jumpOver;
+    private final int[] jumpTo;
+
+    // Pegs that must be present (from + over) and the hole that must be empty (to)
+    private final long[] needPegs;
+    private final long[] needEmpty;
+    // All three bits of the jump: XOR-ing it onto a position performs the jump
+    private final long[] flipMask;
+    // XOR of the Zobrist keys of the three holes: XOR-ing it onto a hash performs (or undoes) the jump
+    private final long[] zobristDelta;
+
+    // Jumps are numbered hole by hole, so the jumps starting at hole h are the ids
+    // firstJump[h] .. firstJump[h + 1] - 1 (each one is an (over, to) pair for that hole).
+    // That range is the hole's table of legal (over, to) pairs: findJump looks a move up in it.
+    private final int[] firstJump;
+
+    // affectedJumps[j] = every jump that uses one of the three holes of jump j (including j).
+    // Only these can change between legal and illegal when j is played.
+    private final int[][] affectedJumps;
+
+    private RuleSet(BoardShape shape, int[][] dirs) {
+        this.shape = shape;
+        this.diagonal = dirs == DIAGONAL_DIRS;
+        int n = shape.getHoleCount();
+
+        // Count first so the tables can be exact-sized
+        int count = 0;
+        for (int from = 0; from < n; from++) {
+            for (int[] d : dirs) {
+                if (jumpTarget(shape, from, d) >= 0) count++;
+            }
+        }
+
+        jumpCount = count;
+        jumpFrom = new int[count];
+        jumpOver = new int[count];
+        jumpTo = new int[count];
+        needPegs = new long[count];
+        needEmpty = new long[count];
+        flipMask = new long[count];
+        zobristDelta = new long[count];
+        firstJump = new int[n + 1];
+
+        int j = 0;
+        for (int from = 0; from < n; from++) {
+            firstJump[from] = j;
+            for (int[] d : dirs) {
+                int to = jumpTarget(shape, from, d);
+                if (to < 0) continue;
+
+                int r = shape.holeRow(from);
+                int c = shape.holeCol(from);
+                int over = shape.holeIndex(r + d[0] / 2, c + d[1] / 2);
+
+                jumpFrom[j] = from;
+                jumpOver[j] = over;
+                jumpTo[j] = to;
+                needPegs[j] = (1L << from) | (1L << over);
+                needEmpty[j] = 1L << to;
+                flipMask[j] = needPegs[j] | needEmpty[j];
+                zobristDelta[j] = shape.zobristKey(from) ^ shape.zobristKey(over) ^ shape.zobristKey(to);
+                j++;
+            }
+        }
+        firstJump[n] = j;
+
+        affectedJumps = new int[count][];
+        for (int a = 0; a < count; a++) {
+            int[] list = new int[count];
+            int size = 0;
+            for (int b = 0; b < count; b++) {
+                if ((flipMask[a] & flipMask[b]) != 0) list[size++] = b;
+            }
+            affectedJumps[a] = Arrays.copyOf(list, size);
+        }
+    }
+
+    // Standard rules: jump orthogonally over one peg into an empty hole
+    public static RuleSet orthogonal(BoardShape shape) {
+        return new RuleSet(shape, ORTHOGONAL_DIRS);
+    }
+
+    // Orthogonal jumps plus diagonal jumps over one peg
+    public static RuleSet withDiagonals(BoardShape shape) {
+        return new RuleSet(shape, DIAGONAL_DIRS);
+    }
+
+    // Returns the destination hole for a jump from "from" in direction d, or -1 if the
+    // destination or the jumped-over cell is not on the board
+    private static int jumpTarget(BoardShape shape, int from, int[] d) {
+        int r = shape.holeRow(from);
+        int c = shape.holeCol(from);
+        if (shape.holeIndex(r + d[0] / 2, c + d[1] / 2) < 0) return -1;
+        return shape.holeIndex(r + d[0], c + d[1]);
+    }
+
+    // Returns the board shape these rules were compiled for
+    public BoardShape getShape() {
+        return shape;
+    }
+
+    // Returns true if these rules allow diagonal jumps
+    public boolean allowsDiagonals() {
+        return diagonal;
+    }
+
+    // Returns how many jumps exist on this board
+    public int jumpCount() {
+        return jumpCount;
+    }
+
+    public int jumpFrom(int jump) {
+        return jumpFrom[jump];
+    }
+
+    public int jumpOver(int jump) {
+        return jumpOver[jump];
+    }
+
+    public int jumpTo(int jump) {
+        return jumpTo[jump];
+    }
+
+    // Returns the three bits touched by a jump; XOR it onto a position to apply (or undo) the jump
+    public long flipMask(int jump) {
+        return flipMask[jump];
+    }
+
+    // Returns what a jump does to a Zobrist hash: hash ^ zobristDelta(j) is the hash after (or before) j
+    public long zobristDelta(int jump) {
+        return zobristDelta[jump];
+    }
+
+    // Returns the jumps whose legality can change when the given jump is played (or undone)
+    public int[] affectedJumps(int jump) {
+        return affectedJumps[jump];
+    }
+
+    // Returns the jump id that moves a peg from hole "from" to hole "to", or -1 if there is none
+    // (also for hole indexes that aren't on the board). Only the (over, to) pairs of "from" are
+    // looked at: at most 4 orthogonal or 8 diagonal jumps.
+    public int findJump(int from, int to) {
+        if (from < 0 || from >= shape.getHoleCount()) return -1;
+        for (int j = firstJump[from]; j < firstJump[from + 1]; j++) {
+            if (jumpTo[j] == to) return j;
+        }
+        return -1;
+    }
+
+    // Checks if the jump is legal on the given position (from + over have pegs, to is empty)
+    public boolean canJump(long pegs, int jump) {
+        return (pegs & needPegs[jump]) == needPegs[jump] && (pegs & needEmpty[jump]) == 0;
+    }
+
+    // Checks if the jump could have been the last move played on the given position
+    // (to has a peg, from + over are empty), i.e. if apply() leads back to a parent position
+    public boolean canUnjump(long pegs, int jump) {
+        return (pegs & needEmpty[jump]) != 0 && (pegs & needPegs[jump]) == 0;
+    }
+
+    // Returns the position after performing the jump (the caller must check canJump first)
+    public long apply(long pegs, int jump) {
+        return pegs ^ flipMask[jump];
+    }
+
+    // Writes the ids of all legal jumps on the given position into out and returns how many
+    // there are. out needs room for jumpCount() values; nothing is allocated.
+    public int legalJumps(long pegs, int[] out) {
+        int count = 0;
+        for (int j = 0; j < jumpCount; j++) {
+            if ((pegs & needPegs[j]) == needPegs[j] && (pegs & needEmpty[j]) == 0) {
+                out[count++] = j;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,56 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+// Stores a rule set in the header of our binary files (game records, solvability tables):
+// byte flags (bit 0 = diagonal jumps), byte board size, then one long per board row with
+// bit c set when (row, c) is a hole. Jump ids only depend on the mask and the diagonal flag,
+// so this is enough to rebuild the exact RuleSet a file refers to.
+final class RuleSetHeader {
+    static final int FLAG_DIAGONAL = 1;
+
+    private RuleSetHeader() {
+    }
+
+    // Number of bytes write() produces for a board of the given size
+    static int bytes(int size) {
+        return 2 + size * Long.BYTES;
+    }
+
+    static void write(ByteBuffer out, RuleSet rules) {
+        BoardShape shape = rules.getShape();
+        out.put((byte) (rules.allowsDiagonals() ? FLAG_DIAGONAL : 0));
+        out.put((byte) shape.getSize());
+        for (int r = 0; r < shape.getSize(); r++) {
+            out.putLong(shape.rowMask(r));
+        }
+    }
+
+    static RuleSet read(ByteBuffer in) throws IOException {
+        if (in.remaining() < 2) throw new IOException("Truncated header");
+        int flags = in.get();
+        int size = in.get() & 0xFF;
+        if (size > 64 || in.remaining() < size * Long.BYTES) throw new IOException("Bad board in header");
+
+        boolean[][] mask = new boolean[size][size];
+        for (int r = 0; r < size; r++) {
+            long row = in.getLong();
+            for (int c = 0; c < size; c++) {
+                mask[r][c] = (row & (1L << c)) != 0;
+            }
+        }
+        BoardShape shape;
+        try {
+            shape = new BoardShape(mask);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Bad board in header: " + e.getMessage());
+        }
+        // Reuse the shared English instance when it matches, so boards built from it accept these rules
+        if (shape.sameLayout(BoardShape.english())) shape = BoardShape.english();
+        return (flags & FLAG_DIAGONAL) != 0 ? RuleSet.withDiagonals(shape) : RuleSet.orthogonal(shape);
+    }
+
+    // Checks if two rule sets have the same board and jumps (so jump ids and positions match)
+    static boolean sameRules(RuleSet a, RuleSet b) {
+        return a.allowsDiagonals() == b.allowsDiagonals() && a.getShape().sameLayout(b.getShape());
+    }
+}
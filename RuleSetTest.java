@@ -0,0 +1,73 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for BoardShape and RuleSet.
+ * Checks the hole indexing and the compiled jump tables of the English board.
+ */
+public class RuleSetTest {
+
+    /**
+     * Test that the English cross has 33 holes and that indexes round-trip to coordinates.
+     */
+    @Test
+    void englishShapeShouldHave33Holes() {
+        BoardShape shape = BoardShape.english();
+
+        assertEquals(33, shape.getHoleCount());
+        assertEquals(-1, shape.holeIndex(0, 0));
+        for (int i = 0; i < shape.getHoleCount(); i++) {
+            assertEquals(i, shape.holeIndex(shape.holeRow(i), shape.holeCol(i)));
+        }
+        assertEquals(32, Long.bitCount(shape.startingPosition()));
+    }
+
+    /**
+     * Test that the English board has the 76 orthogonal jumps and that lookups match them.
+     */
+    @Test
+    void englishRulesShouldHave76Jumps() {
+        RuleSet rules = RuleSet.orthogonal(BoardShape.english());
+
+        assertEquals(76, rules.jumpCount());
+        for (int j = 0; j < rules.jumpCount(); j++) {
+            assertEquals(j, rules.findJump(rules.jumpFrom(j), rules.jumpTo(j)));
+        }
+    }
+
+    /**
+     * Test that applying a jump twice gives back the original position.
+     */
+    @Test
+    void applyingJumpTwiceShouldRestorePosition() {
+        BoardShape shape = BoardShape.english();
+        RuleSet rules = RuleSet.orthogonal(shape);
+        long start = shape.startingPosition();
+
+        int jump = rules.findJump(shape.holeIndex(3, 1), shape.holeIndex(3, 3));
+        assertTrue(rules.canJump(start, jump));
+
+        long after = rules.apply(start, jump);
+        assertEquals(31, Long.bitCount(after));
+        assertEquals(start, rules.apply(after, jump));
+    }
+
+    /**
+     * Test that findJump, which only searches the jumps starting at the given hole, finds every
+     * jump, and rejects pairs of holes that aren't one jump apart.
+     */
+    @Test
+    void findJumpShouldFindEveryJump() {
+        BoardShape shape = BoardShape.diamond(9);
+        RuleSet rules = RuleSet.withDiagonals(shape);
+
+        for (int j = 0; j < rules.jumpCount(); j++) {
+            assertEquals(j, rules.findJump(rules.jumpFrom(j), rules.jumpTo(j)));
+        }
+        int center = shape.centerHole();
+        assertEquals(-1, rules.findJump(center, center));
+        assertEquals(-1, rules.findJump(center, shape.holeIndex(3, 4)));
+        assertEquals(-1, rules.findJump(-1, center));
+        assertEquals(-1, rules.findJump(shape.getHoleCount(), center));
+    }
+}
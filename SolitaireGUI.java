@@ -9,6 +9,7 @@
 // - Text (labels), a line divider, a checkbox, and radio buttons
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -18,6 +19,13 @@ import javafx.scene.shape.Line;
 import javafx.scene.text.Font;
 import javafx.stage.Stage;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.Map;
+
 public class SolitaireGUI extends Application {
 
     // Board types the user can choose
@@ -40,23 +48,49 @@ public class SolitaireGUI extends Application {
 
     private Button newGameBtn;
     private Button restartBtn;
+    private Button undoBtn;
+    private Button redoBtn;
+    private Button hintBtn;
 
     // --- Board state (this is basically my “model” in memory) ---
-    // validHole[r][c] = true means that (r,c) is an actual spot on the board.
-    // hasPeg[r][c]   = true means there is a peg currently sitting there.
-    private boolean[][] validHole;
-    private boolean[][] hasPeg;
+    // The shared PegBoard engine knows the board shape, the jump rules and where the pegs are.
+    // It's the same engine EnglishSolitaireGame and the headless tools use.
+    private PegBoard board;
+
+    // Compiled rule sets per board type: [0] = orthogonal only, [1] = with diagonals.
+    // Compiled once on first use; the diagonal checkbox just picks the other one.
+    private final Map<BoardType, RuleSet[]> compiledRules = new EnumMap<>(BoardType.class);
+    // The pair for the board currently on screen (the radio buttons can change before New Game)
+    private RuleSet[] boardRules;
+
+    // Optional precomputed table of solvable positions (see SolvabilityOracle), used to warn
+    // the player as soon as a move makes one peg impossible. Null if no table file was found.
+    private SolvabilityOracle oracle;
+    // The table only knows positions reached under one rule set, so it's ignored for the rest
+    // of a game once the diagonal option is switched after the first move
+    private boolean rulesSwitchedMidGame = false;
+
+    // Searches for hints on a background thread and posts them back with Platform.runLater
+    private HintEngine hintEngine;
+    // How long a hint search may take before giving up (deep searches on the diamond board)
+    private static final long HINT_MILLIS = 3000;
 
     // I store the actual button objects so I can update their text/style after moves.
+    // It's a pool sized for the largest board, created once and put in the grid once:
+    // a new game or board switch just shows/hides cells instead of building new ones.
     private CellButton[][] buttons;
 
+    // Alternative renderer: the whole board on one canvas, redrawing only the cells that changed.
+    // Used instead of the buttons when started with -Dsolitaire.renderer=canvas (null otherwise).
+    private CanvasBoardView canvasView;
+
     // Selection: user clicks a peg first (select), then clicks a destination hole (move).
     private int selR = -1;
     private int selC = -1;
 
     // Simple stats
     private BoardType currentType = BoardType.ENGLISH;
-    private int moveCount = 0;
+    // (the move count comes from the board's move history, so undo/redo keep it right)
 
     @Override
     public void start(Stage stage) {
@@ -88,9 +122,15 @@ public class SolitaireGUI extends Application {
         newGameBtn = new Button("New Game");
         restartBtn = new Button("Restart");
 
+        undoBtn = new Button("Undo");
+        redoBtn = new Button("Redo");
+        hintBtn = new Button("Hint");
+
         // Put buttons side-by-side
         HBox buttonRow = new HBox(10, newGameBtn, restartBtn);
         buttonRow.setAlignment(Pos.CENTER_LEFT);
+        HBox historyRow = new HBox(10, undoBtn, redoBtn, hintBtn);
+        historyRow.setAlignment(Pos.CENTER_LEFT);
 
         // Status shows hints like “select a peg” or “invalid move”
         statusLabel = new Label("Select a peg, then select an empty hole.");
@@ -109,6 +149,7 @@ public class SolitaireGUI extends Application {
             diamondBoard,
             diagonalCheck,
             buttonRow,
+            historyRow,
             new Separator(),
             new Label("Status:"),
             statusLabel,
@@ -135,6 +176,16 @@ public class SolitaireGUI extends Application {
         root.setLeft(leftPanel);
         root.setCenter(boardGrid);
 
+        // Canvas renderer: the canvas takes the grid's place, clicks come back as hole indexes
+        if ("canvas".equals(System.getProperty("solitaire.renderer"))) {
+            canvasView = new CanvasBoardView();
+            canvasView.setOnHoleClicked(hole -> {
+                BoardShape shape = board.getShape();
+                onCellClicked(shape.holeRow(hole), shape.holeCol(hole));
+            });
+            root.setCenter(canvasView.getCanvas());
+        }
+
         // -------------------------------
         // Wire up actions (event handlers)
         // -------------------------------
@@ -155,9 +206,35 @@ public class SolitaireGUI extends Application {
         // Restart = keep same board type but reset to starting layout
         restartBtn.setOnAction(e -> restartGame());
 
+        // Undo / Redo = step through the move history (no board copies involved)
+        undoBtn.setOnAction(e -> undoMove());
+        redoBtn.setOnAction(e -> redoMove());
+
+        // Hint = look for a good next move in the background; the board stays usable meanwhile
+        hintBtn.setOnAction(e -> requestHint());
+
+        // Toggling diagonals switches the board to the other rule set (pegs stay where they are),
+        // which can change whether the game is over. The selected peg's moves were worked out
+        // under the old rules, so the selection is dropped and the board and stats redrawn.
+        diagonalCheck.setOnAction(e -> {
+            boolean wasOver = board.isGameOver();
+            hintEngine.cancel();
+            if (board.historySize() > 0) rulesSwitchedMidGame = true;
+            selR = -1;
+            selC = -1;
+            board.setRules(activeRules());
+            refreshBoardUI();
+            updateStats();
+            if (board.isGameOver()) statusLabel.setText("Game over: no moves available.");
+            else if (wasOver) statusLabel.setText("Moves available again. Select a peg.");
+            else statusLabel.setText("Rules changed. Select a peg.");
+        });
+
         // -------------------------------
         // Start my initial game
         // -------------------------------
+        oracle = loadOracle();
+        hintEngine = new HintEngine(Platform::runLater, oracle);
         startNewGame();
 
         Scene scene = new Scene(root, 820, 520);
@@ -166,6 +243,12 @@ public class SolitaireGUI extends Application {
         stage.show();
     }
 
+    // Stop the hint thread when the window closes
+    @Override
+    public void stop() {
+        if (hintEngine != null) hintEngine.close();
+    }
+
     // -------------------------------
     // This starts a fresh game
     // - resets stats
@@ -173,8 +256,9 @@ public class SolitaireGUI extends Application {
     // - fills pegs to starting position
     // -------------------------------
     private void startNewGame() {
-        moveCount = 0;
+        hintEngine.cancel();
         clearSelection();
+        rulesSwitchedMidGame = false;
 
         buildBoardForType(currentType);
         refreshBoardUI();
@@ -183,7 +267,7 @@ public class SolitaireGUI extends Application {
         updateStats();
 
         // Just in case, check if the board has moves (normally it will)
-        if (isGameOver()) {
+        if (board.isGameOver()) {
             statusLabel.setText("Game over: no moves available.");
         }
     }
@@ -193,20 +277,45 @@ public class SolitaireGUI extends Application {
     // but resets pegs back to the starting arrangement.
     // -------------------------------
     private void restartGame() {
-        moveCount = 0;
+        hintEngine.cancel();
         clearSelection();
+        rulesSwitchedMidGame = false;
 
-        initPegsToStartingPosition();
+        board.reset();
         refreshBoardUI();
 
         statusLabel.setText("Game restarted. Select a peg, then select an empty hole.");
         updateStats();
 
-        if (isGameOver()) {
+        if (board.isGameOver()) {
             statusLabel.setText("Game over: no moves available.");
         }
     }
 
+    // -------------------------------
+    // Undo / Redo:
+    // The board keeps every move in its history, so both are just
+    // one jump flipped back (or forward) on the board.
+    // -------------------------------
+    private void undoMove() {
+        if (!board.undo()) return;
+        hintEngine.cancel();
+        clearSelection();
+        refreshBoardUI();
+        statusLabel.setText("Move undone. " + nextStepHint());
+        updateStats();
+    }
+
+    private void redoMove() {
+        if (!board.redo()) return;
+        hintEngine.cancel();
+        clearSelection();
+        refreshBoardUI();
+        if (board.isGameOver()) statusLabel.setText("Move redone. Game over: no moves available.");
+        else statusLabel.setText("Move redone. " + nextStepHint());
+        updateStats();
+    }
+
     // -------------------------------
     // Board size depends on board type:
     // English = 7x7
@@ -218,56 +327,78 @@ public class SolitaireGUI extends Application {
     }
 
     // -------------------------------
-    // Build the board arrays and GUI buttons
-    // validHole decides which coordinates actually exist on the board.
+    // Board shape for each type:
+    // English = 7x7 cross
+    // Diamond = cells within Manhattan distance 4 of the center in a 9x9 grid
     // -------------------------------
-    private void buildBoardForType(BoardType type) {
-        boardGrid.getChildren().clear();
-
-        int size = sizeFor(type);
+    private BoardShape shapeFor(BoardType type) {
+        if (type == BoardType.ENGLISH) return BoardShape.english();
+        return BoardShape.diamond(sizeFor(type));
+    }
 
-        // Allocate arrays for this board size
-        buttons = new CellButton[size][size];
-        validHole = new boolean[size][size];
-        hasPeg = new boolean[size][size];
+    // Compiled rules for a board type. Both variants are compiled the first time the type
+    // is used and reused after that.
+    private RuleSet[] rulesFor(BoardType type) {
+        return compiledRules.computeIfAbsent(type, t -> {
+            BoardShape shape = shapeFor(t);
+            return new RuleSet[] { RuleSet.orthogonal(shape), RuleSet.withDiagonals(shape) };
+        });
+    }
 
-        // -------------------------------
-        // Build the board “mask” (shape)
-        // - validHole[r][c] = true means that cell is part of the board
-        // -------------------------------
+    // Jump rules for the current board: orthogonal always, diagonal only if the checkbox is on
+    private RuleSet activeRules() {
+        return boardRules[diagonalCheck.isSelected() ? 1 : 0];
+    }
 
-        if (type == BoardType.ENGLISH) {
+    // -------------------------------
+    // Build the board model and show the cells it needs
+    // The shape decides which coordinates actually exist on the board.
+    // -------------------------------
+    private void buildBoardForType(BoardType type) {
+        RuleSet[] rules = rulesFor(type);
+        if (board != null && rules == boardRules) {
+            // Same board type as before: keep the engine and put it back in the starting position
+            if (board.getRules() != activeRules()) board.setRules(activeRules());
+            board.reset();
+        } else {
+            // New engine for this shape, already in the starting position
+            // (everything filled except the center)
+            boardRules = rules;
+            board = new PegBoard(activeRules());
+        }
+        int size = board.getSize();
 
-            // English 7x7 cross:
-            // invalid if (r < 2 || r > 4) AND (c < 2 || c > 4)
-            for (int r = 0; r < size; r++) {
-                for (int c = 0; c < size; c++) {
-                    boolean valid = !((r < 2 || r > 4) && (c < 2 || c > 4));
-                    validHole[r][c] = valid;
-                }
-            }
+        // The canvas only needs to know the new shape; it draws everything on the next refresh
+        if (canvasView != null) {
+            canvasView.setShape(board.getShape());
+            return;
+        }
 
-        } else {
+        if (buttons == null) buildCellPool();
 
-            // Diamond shape (Manhattan distance from center)
-            int mid = size / 2;
-            for (int r = 0; r < size; r++) {
-                for (int c = 0; c < size; c++) {
-                    validHole[r][c] = Math.abs(r - mid) + Math.abs(c - mid) <= mid;
-                }
+        // Cells outside this board's grid take no space in the layout,
+        // so the smaller board isn't padded out to the largest one.
+        // (Which cells inside the grid are holes is decided in refreshBoardUI.)
+        for (int r = 0; r < buttons.length; r++) {
+            for (int c = 0; c < buttons[r].length; c++) {
+                boolean inGrid = r < size && c < size;
+                buttons[r][c].setManaged(inGrid);
+                if (!inGrid) buttons[r][c].setVisible(false);
             }
         }
+    }
 
-        // Fill pegs in starting positions (everything filled except the center)
-        initPegsToStartingPosition();
+    // -------------------------------
+    // Create one button for every coordinate of the largest board.
+    // Called once; every board after that reuses these buttons.
+    // -------------------------------
+    private void buildCellPool() {
+        int maxSize = 0;
+        for (BoardType t : BoardType.values()) maxSize = Math.max(maxSize, sizeFor(t));
 
-        // -------------------------------
-        // Create a button for each coordinate
-        // - If the coordinate is invalid, we hide it later
-        // - If it is valid, we show ● or ○ based on hasPeg
-        // -------------------------------
-        for (int r = 0; r < size; r++) {
-            for (int c = 0; c < size; c++) {
+        buttons = new CellButton[maxSize][maxSize];
+        for (int r = 0; r < maxSize; r++) {
+            for (int c = 0; c < maxSize; c++) {
 
                 CellButton cellBtn = new CellButton(r, c);
                 cellBtn.setPrefSize(48, 48);
@@ -282,25 +413,6 @@ public class SolitaireGUI extends Application {
         }
     }
 
-    // -------------------------------
-    // Starting layout for peg solitaire:
-    // - All valid holes contain pegs
-    // - Center hole is empty
-    // -------------------------------
-    private void initPegsToStartingPosition() {
-        int size = validHole.length;
-
-        for (int r = 0; r < size; r++) {
-            for (int c = 0; c < size; c++) {
-                hasPeg[r][c] = validHole[r][c];
-            }
-        }
-
-        // Center is empty at start
-        int mid = size / 2;
-        hasPeg[mid][mid] = false;
-    }
-
     // -------------------------------
     // Click behavior:
     // 1) If nothing selected: must click a peg to select it.
@@ -309,17 +421,17 @@ public class SolitaireGUI extends Application {
     // 4) If clicking an empty hole: attempt a move.
     // -------------------------------
     private void onCellClicked(int r, int c) {
-        if (!validHole[r][c]) return;
+        if (!board.isValidHole(r, c)) return;
 
         // If game is over, stop moves and tell the user.
-        if (isGameOver()) {
+        if (board.isGameOver()) {
             statusLabel.setText("Game over: no moves available. Start a New Game or Restart.");
             return;
         }
 
         // (1) No selection yet: user must choose a peg first
         if (selR == -1) {
-            if (!hasPeg[r][c]) {
+            if (!board.hasPeg(r, c)) {
                 statusLabel.setText("That hole is empty. Select a peg first.");
                 return;
             }
@@ -336,22 +448,22 @@ public class SolitaireGUI extends Application {
         }
 
         // (3) If they click a different peg, just switch selection
-        if (hasPeg[r][c]) {
+        if (board.hasPeg(r, c)) {
             setSelection(r, c);
             statusLabel.setText("Switched selection. Now click a destination empty hole.");
             return;
         }
 
         // (4) They clicked an empty hole: attempt the jump move
-        if (tryMove(selR, selC, r, c)) {
-            moveCount++;
+        if (board.tryMove(selR, selC, r, c)) {
+            hintEngine.cancel();
             clearSelection();
             refreshBoardUI();
 
-            if (isGameOver()) {
+            if (board.isGameOver()) {
                 statusLabel.setText("Move made. Game over: no moves available.");
             } else {
-                statusLabel.setText("Move made. Select a peg for the next move.");
+                statusLabel.setText("Move made. " + nextStepHint());
             }
 
             updateStats();
@@ -361,101 +473,64 @@ public class SolitaireGUI extends Application {
     }
 
     // -------------------------------
-    // Attempt a move:
-    // - Move is a “jump” of 2 spaces
-    // - Middle spot must contain a peg (the one we remove)
-    // - Destination must be empty
-    // - Orthogonal moves always allowed; diagonal only if checkbox enabled
+    // Solvability warning:
+    // If a table for this board and rules is loaded, tell the player right away
+    // when the position can't be finished with one peg anymore.
     // -------------------------------
-    private boolean tryMove(int fromR, int fromC, int toR, int toC) {
-        if (!validHole[fromR][fromC] || !validHole[toR][toC]) return false;
-        if (!hasPeg[fromR][fromC]) return false;
-        if (hasPeg[toR][toC]) return false;
-
-        int dr = toR - fromR;
-        int dc = toC - fromC;
-
-        boolean allowDiagonal = diagonalCheck.isSelected();
-
-        boolean isOrthogonalJump =
-                (Math.abs(dr) == 2 && dc == 0) ||
-                (Math.abs(dc) == 2 && dr == 0);
-
-        boolean isDiagonalJump =
-                allowDiagonal && (Math.abs(dr) == 2 && Math.abs(dc) == 2);
-
-        // Must be exactly a 2-cell jump in a legal direction
-        if (!isOrthogonalJump && !isDiagonalJump) return false;
-
-        // Middle cell is halfway between from and to
-        int midR = fromR + dr / 2;
-        int midC = fromC + dc / 2;
-
-        // Middle must be valid AND must have a peg to jump over
-        if (!validHole[midR][midC]) return false;
-        if (!hasPeg[midR][midC]) return false;
-
-        // Execute move:
-        // - from becomes empty
-        // - middle peg is removed
-        // - destination becomes peg
-        hasPeg[fromR][fromC] = false;
-        hasPeg[midR][midC] = false;
-        hasPeg[toR][toC] = true;
+    private String nextStepHint() {
+        if (knownUnsolvable()) return "This position can no longer be finished with one peg.";
+        return "Select a peg for the next move.";
+    }
 
-        return true;
+    private boolean knownUnsolvable() {
+        if (oracle == null || rulesSwitchedMidGame) return false;
+        if (!oracle.covers(board.getRules()) || oracle.getStart() != board.getShape().startingPosition()) return false;
+        return !oracle.isSolvable(board.getPegs());
     }
 
     // -------------------------------
-    // Game over = no valid moves exist.
-    // I scan every peg and see if it can jump somewhere.
+    // Hints:
+    // The search runs on the hint engine's thread. When it's done, showHint runs back on the
+    // FX thread and selects the peg to move. Any change to the board cancels the search.
     // -------------------------------
-    private boolean isGameOver() {
-        int size = validHole.length;
-        boolean allowDiagonal = diagonalCheck.isSelected();
-
-        // Directions are “2 cells away” because a jump is length 2
-        int[][] dirs = allowDiagonal
-                ? new int[][]{
-                    {-2, 0}, {2, 0}, {0, -2}, {0, 2},
-                    {-2, -2}, {-2, 2}, {2, -2}, {2, 2}
-                }
-                : new int[][]{
-                    {-2, 0}, {2, 0}, {0, -2}, {0, 2}
-                };
-
-        for (int r = 0; r < size; r++) {
-            for (int c = 0; c < size; c++) {
-
-                // Only consider real holes that currently have pegs
-                if (!validHole[r][c] || !hasPeg[r][c]) continue;
-
-                for (int[] d : dirs) {
-                    int toR = r + d[0];
-                    int toC = c + d[1];
-
-                    // Destination must be on board and empty
-                    if (!inBounds(toR, toC)) continue;
-                    if (!validHole[toR][toC]) continue;
-                    if (hasPeg[toR][toC]) continue;
-
-                    // Middle must have a peg
-                    int midR = r + d[0] / 2;
-                    int midC = c + d[1] / 2;
+    private void requestHint() {
+        if (board.isGameOver()) {
+            statusLabel.setText("Game over: no moves available.");
+            return;
+        }
+        statusLabel.setText("Looking for a hint...");
+        hintEngine.request(board.getRules(), board.getPegs(), HINT_MILLIS, this::showHint);
+    }
 
-                    if (inBounds(midR, midC) && validHole[midR][midC] && hasPeg[midR][midC]) {
-                        return false; // found at least one legal move
-                    }
-                }
+    private void showHint(HintEngine.Hint hint) {
+        // Ignore a hint for a position that isn't on the board anymore
+        if (hint.rules() != board.getRules() || hint.pegs() != board.getPegs()) return;
+
+        switch (hint.kind()) {
+            case MOVE -> {
+                RuleSet rules = hint.rules();
+                BoardShape shape = rules.getShape();
+                int from = rules.jumpFrom(hint.jump());
+                int to = rules.jumpTo(hint.jump());
+                setSelection(shape.holeRow(from), shape.holeCol(from));
+                statusLabel.setText("Hint: jump from (" + shape.holeRow(from) + "," + shape.holeCol(from)
+                        + ") to (" + shape.holeRow(to) + "," + shape.holeCol(to) + "). The peg is selected.");
             }
+            case NO_SOLUTION -> statusLabel.setText("No hint: this position can't be finished with one peg.");
+            case TIMED_OUT -> statusLabel.setText("No hint found in time. Try again after another move.");
         }
-
-        return true; // no moves were found anywhere
     }
 
-    // Bounds check helper
-    private boolean inBounds(int r, int c) {
-        return r >= 0 && c >= 0 && r < validHole.length && c < validHole.length;
+    // Maps the table file if there is one (-Dsolitaire.oracle=path, default english.pego;
+    // build it with "java SolvabilityOracle english.pego <workDir>")
+    private SolvabilityOracle loadOracle() {
+        Path file = Paths.get(System.getProperty("solitaire.oracle", "english.pego"));
+        if (!Files.exists(file)) return null;
+        try {
+            return SolvabilityOracle.open(file);
+        } catch (IOException e) {
+            return null;
+        }
     }
 
     // -------------------------------
@@ -464,7 +539,14 @@ public class SolitaireGUI extends Application {
     // Also hides invalid cells so the board looks like the correct shape.
     // -------------------------------
     private void refreshBoardUI() {
-        int size = validHole.length;
+        // The canvas works out by itself which cells changed since it last drew
+        if (canvasView != null) {
+            int selected = selR == -1 ? -1 : board.getShape().holeIndex(selR, selC);
+            canvasView.render(board.getPegs(), selected);
+            return;
+        }
+
+        int size = board.getSize();
 
         for (int r = 0; r < size; r++) {
             for (int c = 0; c < size; c++) {
@@ -472,7 +554,7 @@ public class SolitaireGUI extends Application {
                 CellButton b = buttons[r][c];
 
                 // If not part of board: hide it
-                if (!validHole[r][c]) {
+                if (!board.isValidHole(r, c)) {
                     b.setDisable(true);
                     b.setText("");
                     b.setVisible(false);
@@ -484,7 +566,7 @@ public class SolitaireGUI extends Application {
                 b.setDisable(false);
 
                 // Display peg vs empty
-                b.setText(hasPeg[r][c] ? "●" : "○");
+                b.setText(board.hasPeg(r, c) ? "●" : "○");
 
                 // Highlight selected peg
                 if (r == selR && c == selC) {
@@ -507,26 +589,16 @@ public class SolitaireGUI extends Application {
     private void clearSelection() {
         selR = -1;
         selC = -1;
-        if (buttons != null) refreshBoardUI();
+        if (board != null) refreshBoardUI();
     }
 
     // -------------------------------
     // Stats helpers (moves + pegs left)
     // -------------------------------
     private void updateStats() {
-        statsLabel.setText("Moves: " + moveCount + "\nPegs remaining: " + countPegs());
-    }
-
-    private int countPegs() {
-        int size = validHole.length;
-        int count = 0;
-
-        for (int r = 0; r < size; r++) {
-            for (int c = 0; c < size; c++) {
-                if (validHole[r][c] && hasPeg[r][c]) count++;
-            }
-        }
-        return count;
+        statsLabel.setText("Moves: " + board.historySize() + "\nPegs remaining: " + board.countPegs());
+        undoBtn.setDisable(!board.canUndo());
+        redoBtn.setDisable(!board.canRedo());
     }
 
     // -------------------------------
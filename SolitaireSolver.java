@@ -0,0 +1,249 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+// Depth-first solver for peg solitaire positions.
+// It tries the legal jumps centre-first (see moveOrder) and remembers positions that already failed
+// (a transposition table of dead positions), so the same sub-position is never searched twice.
+// Dead positions are stored by their symmetry-canonical form, so a rotated or mirrored copy
+// of a failed position is recognized too.
+// Before a position is expanded, a PagodaPruner checks whether the target is still reachable at
+// all (pagoda functions and position classes); positions it rules out are skipped.
+// Positions are packed longs (see BoardShape), moves are jump ids of the RuleSet.
+public class SolitaireSolver {
+    // Special target meaning "finish with one peg anywhere on the board"
+    public static final long ANY_SINGLE_PEG = 0L;
+    // The stop check is polled once every 4096 positions (node count & mask == 0)
+    private static final int STOP_CHECK_MASK = 0xFFF;
+
+    private final RuleSet rules;
+    // All symmetries of the board, and the ones that keep the current target unchanged
+    private final BoardSymmetry symmetry;
+    private BoardSymmetry targetSymmetry;
+    // Positions that are known not to reach the current target
+    private LongHashSet deadPositions;
+    // Dead positions are only valid for the target they were found for, so every target gets its
+    // own table. They all stay until clearDeadPositions, so a solver that is kept around answers
+    // repeated and neighbouring positions from what earlier calls proved.
+    private final Map<Long, TargetTables> tables = new HashMap<>();
+    // The target of the tables in the fields above
+    private long currentTarget;
+
+    // Jumps made on the current search path
+    private final int[] path = new int[BoardShape.MAX_HOLES];
+    private long target;
+    private int targetPegs;
+    private long nodes;
+
+    // Jumps in the order they are tried (see moveOrder)
+    private final int[] order;
+    // jumpImages[j][s] = symmetry s of the current target applied to jump j's flip mask
+    private long[][] jumpImages;
+    // Symmetric copies of the positions on the search path (one row of symmetries per depth)
+    private final long[] copies;
+
+    // Optional table of solvable positions (see SolvabilityOracle) and whether it can be trusted
+    // for the current solve call
+    private SolvabilityOracle oracle;
+    private boolean useOracle;
+
+    // Invariant checks for the current target (built on first use)
+    private PagodaPruner pruner;
+    private boolean pruning = true;
+
+    // Optional check polled during the search (e.g. a deadline); when it says stop, solve gives up
+    private BooleanSupplier stopCheck;
+    private boolean stopped;
+
+    public SolitaireSolver(RuleSet rules) {
+        this.rules = rules;
+        this.symmetry = new BoardSymmetry(rules.getShape());
+        useTables(ANY_SINGLE_PEG);
+        this.order = moveOrder(rules);
+        int holes = rules.getShape().getHoleCount();
+        this.copies = new long[(holes + 1) * symmetry.size()];
+    }
+
+    // Finds a sequence of jumps that turns start into target (or into a single peg if target
+    // is ANY_SINGLE_PEG). Returns the jump ids in order, or null if no solution exists.
+    public int[] solve(long start, long target) {
+        if (target != currentTarget) useTables(target);
+        if (pruning && pruner == null) {
+            pruner = new PagodaPruner(rules, target);
+            tables.get(target).pruner = pruner;
+        }
+        this.target = target;
+        this.targetPegs = target == ANY_SINGLE_PEG ? 1 : Long.bitCount(target);
+        nodes = 0;
+        stopped = false;
+
+        // The table is exact for everything reachable from a position it lists as solvable,
+        // and "can't reach one peg" rules out every single-peg target
+        useOracle = oracle != null && targetPegs == 1 && oracle.covers(rules) && oracle.isSolvable(start);
+
+        int depth = Long.bitCount(start) - targetPegs;
+        if (depth < 0) return null;
+        targetSymmetry.transformAll(start, copies);
+        if (!search(start, 0)) return null;
+
+        int[] solution = new int[depth];
+        System.arraycopy(path, 0, solution, 0, depth);
+        return solution;
+    }
+
+    // Solves an English game from its current position to one peg in the center.
+    // Returns the moves as {fromR, fromC, toR, toC}, or null if the position can't be solved.
+    public static List<int[]> solve(EnglishSolitaireGame game) {
+        RuleSet rules = EnglishSolitaireGame.getRules();
+        long center = 1L << rules.getShape().centerHole();
+        int[] jumps = new SolitaireSolver(rules).solve(game.getPegs(), center);
+        return jumps == null ? null : toMoves(rules, jumps);
+    }
+
+    // Jumps that bring a peg closer to the middle of the board come first, the ones that carry it
+    // towards the edge last: solutions keep the pegs together, and strays at the edge are what
+    // usually makes a position unsolvable. Ties keep the jump id order.
+    static int[] moveOrder(RuleSet rules) {
+        BoardShape shape = rules.getShape();
+        int n = rules.jumpCount();
+        int[] gain = new int[n];
+        Integer[] jumps = new Integer[n];
+        for (int j = 0; j < n; j++) {
+            gain[j] = centreDistance(shape, rules.jumpTo(j)) - centreDistance(shape, rules.jumpFrom(j));
+            jumps[j] = j;
+        }
+        Arrays.sort(jumps, Comparator.comparingInt(j -> gain[j]));
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) order[i] = jumps[i];
+        return order;
+    }
+
+    // Twice the Manhattan distance from a hole to the middle of the grid (whole numbers on even sizes too)
+    private static int centreDistance(BoardShape shape, int hole) {
+        int middle = shape.getSize() - 1;
+        return Math.abs(2 * shape.holeRow(hole) - middle) + Math.abs(2 * shape.holeCol(hole) - middle);
+    }
+
+    // Converts jump ids into {fromR, fromC, toR, toC} moves (the same shape tryMove takes)
+    public static List<int[]> toMoves(RuleSet rules, int[] jumps) {
+        BoardShape shape = rules.getShape();
+        List<int[]> moves = new ArrayList<>(jumps.length);
+        for (int jump : jumps) {
+            int from = rules.jumpFrom(jump);
+            int to = rules.jumpTo(jump);
+            moves.add(new int[]{shape.holeRow(from), shape.holeCol(from), shape.holeRow(to), shape.holeCol(to)});
+        }
+        return moves;
+    }
+
+    // Uses a precomputed solvability table to skip positions that can't reach one peg.
+    // Only used for single-peg targets and starts the table knows about; null turns it off.
+    public void setOracle(SolvabilityOracle oracle) {
+        this.oracle = oracle;
+    }
+
+    // Turns the pagoda / position class pruning on or off (on by default)
+    public void setPruning(boolean pruning) {
+        this.pruning = pruning;
+    }
+
+    // Polls the check every few thousand positions; once it returns true the current solve
+    // returns null and wasStopped() tells it apart from "no solution". null removes the check.
+    public void setStopCheck(BooleanSupplier stopCheck) {
+        this.stopCheck = stopCheck;
+    }
+
+    // Returns true if the last solve call gave up because the stop check said so
+    public boolean wasStopped() {
+        return stopped;
+    }
+
+    // Returns how many positions the last solve call visited
+    public long getNodeCount() {
+        return nodes;
+    }
+
+    // Returns how many positions are remembered as dead, over all targets solved so far
+    public int getDeadPositionCount() {
+        int count = 0;
+        for (TargetTables t : tables.values()) count += t.deadPositions.size();
+        return count;
+    }
+
+    // Forgets every dead position (and frees the tables holding them)
+    public void clearDeadPositions() {
+        tables.clear();
+        useTables(currentTarget);
+    }
+
+    // Switches the fields above to the tables of the given target, creating them the first time
+    private void useTables(long target) {
+        TargetTables t = tables.computeIfAbsent(target, k -> {
+            // A rotated copy of a position only counts as the same if the target survives the rotation
+            BoardSymmetry kept = k == ANY_SINGLE_PEG ? symmetry : symmetry.fixing(k);
+            return new TargetTables(kept, kept.jumpImages(rules));
+        });
+        currentTarget = target;
+        targetSymmetry = t.symmetry;
+        jumpImages = t.jumpImages;
+        deadPositions = t.deadPositions;
+        pruner = t.pruner;
+    }
+
+    // Everything the solver keeps for one target
+    private static final class TargetTables {
+        final BoardSymmetry symmetry;
+        final long[][] jumpImages;
+        final LongHashSet deadPositions = new LongHashSet();
+        PagodaPruner pruner;
+
+        TargetTables(BoardSymmetry symmetry, long[][] jumpImages) {
+            this.symmetry = symmetry;
+            this.jumpImages = jumpImages;
+        }
+    }
+
+    // Recursive search: returns true once the target is reached, leaving the moves in path.
+    // copies[depth * symmetries ..] holds the symmetric copies of pegs; a child's copies are the
+    // parent's XOR the images of the jump, so no position is ever transformed from scratch.
+    private boolean search(long pegs, int depth) {
+        if ((++nodes & STOP_CHECK_MASK) == 0 && stopCheck != null && stopCheck.getAsBoolean()) {
+            stopped = true;
+        }
+        if (stopped) return false;
+
+        // Every jump removes exactly one peg, so we know when we must have arrived
+        if (Long.bitCount(pegs) == targetPegs) {
+            return target == ANY_SINGLE_PEG || pegs == target;
+        }
+        if (useOracle && !oracle.isSolvable(pegs)) return false;
+        if (pruning && !pruner.canReach(pegs)) return false;
+
+        int symmetries = targetSymmetry.size();
+        int row = depth * symmetries;
+        long key = pegs;
+        for (int s = 1; s < symmetries; s++) {
+            if (copies[row + s] < key) key = copies[row + s];
+        }
+        if (deadPositions.contains(key)) return false;
+
+        for (int j : order) {
+            if (!rules.canJump(pegs, j)) continue;
+
+            long[] images = jumpImages[j];
+            for (int s = 0; s < symmetries; s++) {
+                copies[row + symmetries + s] = copies[row + s] ^ images[s];
+            }
+            path[depth] = j;
+            if (search(rules.apply(pegs, j), depth + 1)) return true;
+        }
+
+        // A search that was stopped hasn't proven anything
+        if (!stopped) deadPositions.add(key);
+        return false;
+    }
+}
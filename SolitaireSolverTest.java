@@ -0,0 +1,118 @@
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for SolitaireSolver.
+ * Checks that solutions are found, that they are legal when replayed, and that
+ * unsolvable positions are reported as such.
+ */
+public class SolitaireSolverTest {
+
+    /**
+     * Test that the standard English start is solved to one peg in the center,
+     * and that replaying the moves through tryMove gets there.
+     */
+    @Test
+    void standardStartShouldBeSolvedToCenter() {
+        EnglishSolitaireGame game = new EnglishSolitaireGame();
+
+        List<int[]> moves = SolitaireSolver.solve(game);
+
+        assertNotNull(moves);
+        assertEquals(31, moves.size());
+        for (int[] m : moves) {
+            assertTrue(game.tryMove(m[0], m[1], m[2], m[3]));
+        }
+        assertEquals(1, game.countPegs());
+        assertTrue(game.hasPeg(3, 3));
+    }
+
+    /**
+     * Test that a mid-game position can be solved to any single peg.
+     */
+    @Test
+    void midGamePositionShouldBeSolvable() {
+        EnglishSolitaireGame game = new EnglishSolitaireGame();
+        game.tryMove(3, 1, 3, 3);
+        game.tryMove(1, 2, 3, 2);
+
+        RuleSet rules = EnglishSolitaireGame.getRules();
+        int[] jumps = new SolitaireSolver(rules).solve(game.getPegs(), SolitaireSolver.ANY_SINGLE_PEG);
+
+        assertNotNull(jumps);
+        long pegs = game.getPegs();
+        for (int j : jumps) {
+            assertTrue(rules.canJump(pegs, j));
+            pegs = rules.apply(pegs, j);
+        }
+        assertEquals(1, Long.bitCount(pegs));
+    }
+
+    /**
+     * Test that two pegs that can never meet have no solution.
+     */
+    @Test
+    void isolatedPegsShouldHaveNoSolution() {
+        BoardShape shape = BoardShape.english();
+        long pegs = (1L << shape.holeIndex(0, 2)) | (1L << shape.holeIndex(6, 4));
+
+        SolitaireSolver solver = new SolitaireSolver(RuleSet.orthogonal(shape));
+        assertNull(solver.solve(pegs, SolitaireSolver.ANY_SINGLE_PEG));
+    }
+
+    /**
+     * Test that mid-game English positions (3 to 12 random moves from the start) are answered well
+     * under a second each by a fresh solver, solvable or not. Positions are packed longs.
+     */
+    @Test
+    void midGamePositionsShouldBeAnsweredQuickly() {
+        long[] solvable = {
+            0x1ffbd3befL, 0x1f7cb7bdfL, 0x1f7ff25ffL, 0x10fda75f6L, 0x1f7ff3fceL, 0x1ff9f3fefL,
+            0x1fffaff37L, 0x18fdfbee7L, 0xdff2f5ffL, 0x1ffefd56fL, 0x1edfdfbffL, 0x1fe9afddcL
+        };
+        long[] unsolvable = {0x1ecd6746fL, 0x1474a7fe5L, 0xed103bffL, 0x10cf8ad7fL};
+        RuleSet rules = EnglishSolitaireGame.getRules();
+
+        for (long start : solvable) {
+            int[] jumps = assertTimeout(Duration.ofSeconds(1),
+                    () -> new SolitaireSolver(rules).solve(start, SolitaireSolver.ANY_SINGLE_PEG));
+            assertNotNull(jumps);
+            long pegs = start;
+            for (int j : jumps) {
+                assertTrue(rules.canJump(pegs, j));
+                pegs = rules.apply(pegs, j);
+            }
+            assertEquals(1, Long.bitCount(pegs));
+        }
+        for (long start : unsolvable) {
+            assertNull(assertTimeout(Duration.ofSeconds(1),
+                    () -> new SolitaireSolver(rules).solve(start, SolitaireSolver.ANY_SINGLE_PEG)));
+        }
+    }
+
+    /**
+     * Test that dead positions found for one target are still known after solving for another.
+     */
+    @Test
+    void deadPositionsShouldBeKeptAcrossTargets() {
+        RuleSet rules = EnglishSolitaireGame.getRules();
+        long center = 1L << rules.getShape().centerHole();
+        long start = 0x1ecd6746fL;
+        SolitaireSolver solver = new SolitaireSolver(rules);
+
+        assertNull(solver.solve(start, SolitaireSolver.ANY_SINGLE_PEG));
+        int dead = solver.getDeadPositionCount();
+        assertTrue(dead > 0);
+        assertNull(solver.solve(start, center));
+        assertTrue(solver.getDeadPositionCount() >= dead);
+
+        // The start itself is remembered as dead, so this is answered without searching
+        assertNull(solver.solve(start, SolitaireSolver.ANY_SINGLE_PEG));
+        assertEquals(1, solver.getNodeCount());
+
+        solver.clearDeadPositions();
+        assertEquals(0, solver.getDeadPositionCount());
+    }
+}
@@ -0,0 +1,269 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Precomputed answer to "can this position still be finished with one peg?" for every position
+// reachable from a start, stored as one bit per possible position in a memory-mapped file.
+// The bit index is the symmetry-canonical position itself, so a lookup is a canonicalization
+// plus one memory read, and opening a table is just mapping the file (nothing is deserialized).
+//
+// File layout: a 4 KB header (int magic "PEGO", byte version, long start position, rule set as
+// in RuleSetHeader) followed by 2^holes bits. Only solvable positions have their bit set, so on
+// file systems with sparse files most of the table takes no disk space.
+//
+// Positions that are not reachable from the start are not in the table and read as unsolvable,
+// so the answer is only exact for positions reached by playing from the start.
+public final class SolvabilityOracle implements AutoCloseable {
+    static final int MAGIC = 0x5045474F; // "PEGO"
+    static final int VERSION = 1;
+    // The bitset starts on its own page
+    private static final int HEADER_BYTES = 4096;
+    // One table is at most 2^36 bits = 8 GB
+    public static final int MAX_HOLES = 36;
+    // The bitset is mapped in windows of 1 GB (a single mapping can't exceed 2 GB)
+    private static final int WINDOW_SHIFT = 30;
+    private static final long WINDOW_MASK = (1L << WINDOW_SHIFT) - 1;
+
+    private final FileChannel channel;
+    private final RuleSet rules;
+    private final BoardSymmetry symmetry;
+    private final long start;
+    private final MappedByteBuffer[] windows;
+
+    private SolvabilityOracle(FileChannel channel, RuleSet rules, long start, MappedByteBuffer[] windows) {
+        this.channel = channel;
+        this.rules = rules;
+        this.symmetry = new BoardSymmetry(rules.getShape());
+        this.start = start;
+        this.windows = windows;
+    }
+
+    // Maps a table written by build()
+    public static SolvabilityOracle open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(HEADER_BYTES, channel.size()));
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IOException(file + " is not a solvability table");
+            }
+            int version = header.get();
+            if (version != VERSION) {
+                throw new IOException("Unsupported solvability table version " + version);
+            }
+            long start = header.getLong();
+            RuleSet rules = RuleSetHeader.read(header);
+            if (channel.size() != HEADER_BYTES + bitsetBytes(rules.getShape())) {
+                throw new IOException("Solvability table " + file + " has the wrong size");
+            }
+            return new SolvabilityOracle(channel, rules, start,
+                    mapBitset(channel, rules.getShape(), FileChannel.MapMode.READ_ONLY));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Returns the rules the table was built for
+    public RuleSet getRules() {
+        return rules;
+    }
+
+    // Returns the position the table was built from
+    public long getStart() {
+        return start;
+    }
+
+    // Checks if the table applies to positions of the given rules
+    public boolean covers(RuleSet other) {
+        return RuleSetHeader.sameRules(rules, other);
+    }
+
+    // True if the position can still be finished with a single peg (anywhere on the board).
+    // Only meaningful for positions reachable from getStart(); any other position reads false.
+    public boolean isSolvable(long pegs) {
+        long bit = symmetry.canonical(pegs);
+        long index = bit >>> 3;
+        return (windows[(int) (index >>> WINDOW_SHIFT)].get((int) (index & WINDOW_MASK)) & (1 << (bit & 7))) != 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Builds the table for every position reachable from start and writes it to file.
+    // 1) The reachable positions are enumerated level by level on disk (canonical forms only).
+    // 2) Going back up from one peg, a position is solvable when one of its children is, so the
+    //    solvable positions with k pegs are the parents of the solvable (k-1)-peg positions that
+    //    are also reachable. Each level is generated with reverse jumps, sorted, and intersected
+    //    with the reachable level file.
+    // Returns how many canonical positions are solvable. workDir holds temporary level files.
+    public static long build(RuleSet rules, long start, Path file, Path workDir) throws IOException {
+        BoardShape shape = rules.getShape();
+        if (shape.getHoleCount() > MAX_HOLES) {
+            throw new IllegalArgumentException("Boards with more than " + MAX_HOLES + " holes need too big a table");
+        }
+
+        // Forward pass: keep the sorted reachable level files
+        Files.createDirectories(workDir);
+        Path levelDir = Files.createTempDirectory(workDir, "levels");
+        ExternalPositionEnumerator enumerator = new ExternalPositionEnumerator(rules, true, levelDir, 1 << 22);
+        enumerator.setKeepLevelFiles(true);
+        List<Path> levels = new ArrayList<>();
+        enumerator.enumerate(start, 1, (pegs, count, level) -> {
+            while (levels.size() <= pegs) levels.add(null);
+            levels.set(pegs, level);
+        });
+
+        long solvable = 0;
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            // Setting the length leaves the bitset as a hole of zeros (sparse where supported)
+            raf.setLength(0);
+            raf.setLength(HEADER_BYTES + bitsetBytes(shape));
+            FileChannel channel = raf.getChannel();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC);
+            header.put((byte) VERSION);
+            header.putLong(start);
+            RuleSetHeader.write(header, rules);
+            header.clear();
+            while (header.hasRemaining()) channel.write(header, header.position());
+
+            MappedByteBuffer[] windows = mapBitset(channel, shape, FileChannel.MapMode.READ_WRITE);
+            BoardSymmetry symmetry = new BoardSymmetry(shape);
+
+            // Every reachable one-peg position is solved already
+            long[] current = readLevel(levels, 1);
+            int currentCount = current.length;
+            for (int pegs = 1; currentCount > 0; pegs++) {
+                for (int i = 0; i < currentCount; i++) setBit(windows, current[i]);
+                solvable += currentCount;
+                if (pegs + 1 >= levels.size() || levels.get(pegs + 1) == null) break;
+
+                // Parents of the solvable positions, canonicalized, sorted and de-duplicated
+                long[] parents = new long[Math.max(16, currentCount * 4)];
+                int parentCount = 0;
+                for (int i = 0; i < currentCount; i++) {
+                    long pegsNow = current[i];
+                    for (int j = 0; j < rules.jumpCount(); j++) {
+                        if (!rules.canUnjump(pegsNow, j)) continue;
+                        if (parentCount == parents.length) parents = Arrays.copyOf(parents, parents.length * 2);
+                        parents[parentCount++] = symmetry.canonical(rules.apply(pegsNow, j));
+                    }
+                }
+                LongSorts.radixSort(parents, parentCount, new long[parentCount]);
+                parentCount = LongSorts.unique(parents, parentCount);
+
+                // Keep only the reachable ones
+                current = intersect(parents, parentCount, levels.get(pegs + 1));
+                currentCount = current.length;
+            }
+            for (MappedByteBuffer window : windows) window.force();
+        } finally {
+            for (Path level : levels) {
+                if (level != null) Files.deleteIfExists(level);
+            }
+            Files.deleteIfExists(levelDir);
+        }
+        return solvable;
+    }
+
+    // Size of the bitset for a shape: one bit per possible position (at least one byte)
+    private static long bitsetBytes(BoardShape shape) {
+        return Math.max(1, (1L << shape.getHoleCount()) >>> 3);
+    }
+
+    // Maps the bitset part of the file in 1 GB windows
+    private static MappedByteBuffer[] mapBitset(FileChannel channel, BoardShape shape, FileChannel.MapMode mode)
+            throws IOException {
+        long bytes = bitsetBytes(shape);
+        int count = (int) ((bytes + WINDOW_MASK) >>> WINDOW_SHIFT);
+        MappedByteBuffer[] windows = new MappedByteBuffer[count];
+        for (int w = 0; w < count; w++) {
+            long offset = (long) w << WINDOW_SHIFT;
+            windows[w] = channel.map(mode, HEADER_BYTES + offset, Math.min(1L << WINDOW_SHIFT, bytes - offset));
+        }
+        return windows;
+    }
+
+    private static void setBit(MappedByteBuffer[] windows, long bit) {
+        long index = bit >>> 3;
+        MappedByteBuffer window = windows[(int) (index >>> WINDOW_SHIFT)];
+        int at = (int) (index & WINDOW_MASK);
+        window.put(at, (byte) (window.get(at) | (1 << (bit & 7))));
+    }
+
+    // Loads a whole level file into memory
+    private static long[] readLevel(List<Path> levels, int pegs) throws IOException {
+        if (pegs >= levels.size() || levels.get(pegs) == null) return new long[0];
+        try (MappedLongReader in = new MappedLongReader(levels.get(pegs))) {
+            long[] values = new long[(int) in.size()];
+            for (int i = 0; i < values.length; i++) values[i] = in.next();
+            return values;
+        }
+    }
+
+    // Values of sorted[0..n) that also appear in the sorted level file (both sorted unsigned)
+    private static long[] intersect(long[] sorted, int n, Path level) throws IOException {
+        long[] out = new long[n];
+        int count = 0;
+        try (MappedLongReader in = new MappedLongReader(level)) {
+            int i = 0;
+            while (i < n && in.hasNext()) {
+                long value = in.next();
+                while (i < n && Long.compareUnsigned(sorted[i], value) < 0) i++;
+                if (i < n && sorted[i] == value) out[count++] = sorted[i++];
+            }
+        }
+        return Arrays.copyOf(out, count);
+    }
+
+    // Command-line entry point: builds a table, then reports what it says about the start.
+    // "diamond7" is the 25-hole diamond(7). The GUI's 41-hole diamond(9) would need a 2^41-bit
+    // table, so plain "diamond" is refused rather than quietly swapped for the smaller board.
+    // Usage: java SolvabilityOracle <tableFile> <workDir> [english|diamond7] [diagonal]
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java SolvabilityOracle <tableFile> <workDir> [english|diamond7] [diagonal]");
+            return;
+        }
+        Path file = Paths.get(args[0]);
+        Path workDir = Paths.get(args[1]);
+        String board = args.length > 2 ? args[2].toLowerCase() : "english";
+        BoardShape shape;
+        if (board.equals("english")) {
+            shape = BoardShape.english();
+        } else if (board.equals("diamond7")) {
+            shape = BoardShape.diamond(7);
+        } else if (board.equals("diamond")) {
+            System.out.println("The 41-hole diamond board needs a 2^41-bit table, too big to build;"
+                    + " use diamond7 for the 25-hole diamond");
+            return;
+        } else {
+            System.out.println("Unknown board: " + args[2] + " (english or diamond7)");
+            return;
+        }
+        boolean diagonal = args.length > 3 && args[3].equalsIgnoreCase("diagonal");
+        RuleSet rules = diagonal ? RuleSet.withDiagonals(shape) : RuleSet.orthogonal(shape);
+
+        long begin = System.nanoTime();
+        long solvable = build(rules, shape.startingPosition(), file, workDir);
+        System.out.printf("%,d solvable positions (canonical) in %.2f s%n", solvable, (System.nanoTime() - begin) / 1e9);
+
+        begin = System.nanoTime();
+        try (SolvabilityOracle oracle = open(file)) {
+            System.out.printf("opened in %.3f ms, start is %s%n", (System.nanoTime() - begin) / 1e6,
+                    oracle.isSolvable(shape.startingPosition()) ? "solvable" : "unsolvable");
+        }
+    }
+}
@@ -0,0 +1,51 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for SolvabilityOracle.
+ * The table must agree with the solver on every reachable position of a small board.
+ */
+public class SolvabilityOracleTest {
+
+    /**
+     * Test every reachable position of a 4x4 square (with diagonal jumps) against
+     * SolitaireSolver, and that a solver using the table finds the same answers.
+     */
+    @Test
+    void tableShouldMatchSolverOnSmallBoard(@TempDir Path dir) throws IOException {
+        boolean[][] square = new boolean[4][4];
+        for (boolean[] row : square) Arrays.fill(row, true);
+        BoardShape shape = new BoardShape(square);
+        RuleSet rules = RuleSet.withDiagonals(shape);
+        long start = shape.startingPosition();
+        Path file = dir.resolve("square.pego");
+
+        long solvable = SolvabilityOracle.build(rules, start, file, dir.resolve("work"));
+        assertTrue(solvable > 0);
+
+        SolitaireSolver plain = new SolitaireSolver(rules);
+        SolitaireSolver withTable = new SolitaireSolver(rules);
+        long[] counts = new long[2];
+        try (SolvabilityOracle oracle = SolvabilityOracle.open(file)) {
+            assertTrue(oracle.covers(RuleSet.withDiagonals(new BoardShape(square))));
+            assertFalse(oracle.covers(RuleSet.orthogonal(shape)));
+            assertEquals(start, oracle.getStart());
+            withTable.setOracle(oracle);
+
+            new PositionEnumerator(rules, true, 1 << 16).enumerate(start, 1, (pegs, positions, count) -> {
+                for (int i = 0; i < count; i++) {
+                    boolean expected = plain.solve(positions[i], SolitaireSolver.ANY_SINGLE_PEG) != null;
+                    assertEquals(expected, oracle.isSolvable(positions[i]));
+                    assertEquals(expected, withTable.solve(positions[i], SolitaireSolver.ANY_SINGLE_PEG) != null);
+                    counts[expected ? 1 : 0]++;
+                }
+            });
+        }
+        assertEquals(solvable, counts[1]);
+        assertTrue(counts[0] > 0);
+    }
+}